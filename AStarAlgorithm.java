@@ -1,35 +1,213 @@
 import java.util.*;
+import java.util.function.*;
 
-class Node implements Comparable<Node> {
+class Node {
     public String name;
-    public ArrayList<Edge> neighbors;
-    public double cost; // g cost
-    public double heuristic; // h cost
-    public double f; // f cost
-    public Node parent;
+    public double heuristic; // h cost, fixed once the node has an edge (compiled graphs keep it)
+    // Every change to the list, through addNeighbor or the list itself, bumps the version of this
+    // node's graph, so cached paths of that graph know when they may be stale. Iterators and
+    // sublists are read-only.
+    public final ArrayList<Edge> neighbors = new EdgeList(this);
+    final GraphVersion graph = new GraphVersion(this);
 
     public Node(String name, double heuristic) {
         this.name = name;
-        this.neighbors = new ArrayList<>();
-        this.cost = Double.MAX_VALUE;
         this.heuristic = heuristic;
-        this.f = Double.MAX_VALUE;
-        this.parent = null;
     }
 
     public void addNeighbor(Edge edge) {
         neighbors.add(edge);
     }
 
+    // Modification count of the graph this node is in.
+    long version() {
+        return graph.get();
+    }
+}
+
+// Outgoing edges of a Node. Each change runs under the GraphVersion lock and records itself, so a
+// compile never sees half an edit and cached paths of the graph are dropped afterwards.
+class EdgeList extends ArrayList<Edge> {
+    private final Node owner;
+
+    EdgeList(Node owner) {
+        this.owner = owner;
+    }
+
+    @Override
+    public boolean add(Edge edge) {
+        return GraphVersion.edgeChanged(owner.graph, edge.target.graph, () -> super.add(edge));
+    }
+
+    @Override
+    public void add(int index, Edge edge) {
+        GraphVersion.edgeChanged(owner.graph, edge.target.graph, () -> {
+            super.add(index, edge);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Edge> edges) {
+        for (Edge edge : edges) {
+            add(edge);
+        }
+        return !edges.isEmpty();
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Edge> edges) {
+        for (Edge edge : edges) {
+            add(index++, edge);
+        }
+        return !edges.isEmpty();
+    }
+
+    @Override
+    public Edge set(int index, Edge edge) {
+        return GraphVersion.edgeChanged(owner.graph, edge.target.graph, () -> super.set(index, edge));
+    }
+
+    @Override
+    public Edge remove(int index) {
+        return GraphVersion.edgeChanged(owner.graph, owner.graph, () -> super.remove(index));
+    }
+
+    @Override
+    public boolean remove(Object edge) {
+        return GraphVersion.edgeChanged(owner.graph, owner.graph, () -> super.remove(edge));
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> edges) {
+        return GraphVersion.edgeChanged(owner.graph, owner.graph, () -> super.removeAll(edges));
+    }
+
     @Override
-    public int compareTo(Node other) {
-        return Double.compare(this.f, other.f);
+    public boolean retainAll(Collection<?> edges) {
+        return GraphVersion.edgeChanged(owner.graph, owner.graph, () -> super.retainAll(edges));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Edge> filter) {
+        return GraphVersion.edgeChanged(owner.graph, owner.graph, () -> super.removeIf(filter));
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<Edge> operator) {
+        for (int i = 0; i < size(); i++) {
+            set(i, operator.apply(get(i)));
+        }
+    }
+
+    @Override
+    public void sort(Comparator<? super Edge> order) {
+        GraphVersion.edgeChanged(owner.graph, owner.graph, () -> {
+            super.sort(order);
+            return null;
+        });
+    }
+
+    @Override
+    public void clear() {
+        GraphVersion.edgeChanged(owner.graph, owner.graph, () -> {
+            super.clear();
+            return null;
+        });
+    }
+
+    @Override
+    protected void removeRange(int from, int to) {
+        GraphVersion.edgeChanged(owner.graph, owner.graph, () -> {
+            super.removeRange(from, to);
+            return null;
+        });
+    }
+
+    @Override
+    public Iterator<Edge> iterator() {
+        return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<Edge> listIterator() {
+        return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<Edge> listIterator(int index) {
+        return new ReadOnlyIterator(super.listIterator(index));
+    }
+
+    @Override
+    public List<Edge> subList(int from, int to) {
+        return Collections.unmodifiableList(super.subList(from, to));
+    }
+
+    // A copy is a plain list, so editing it does not touch this node's graph.
+    @Override
+    public Object clone() {
+        return new ArrayList<>(this);
+    }
+
+    private static final class ReadOnlyIterator implements ListIterator<Edge> {
+        private final ListIterator<Edge> edges;
+
+        ReadOnlyIterator(ListIterator<Edge> edges) {
+            this.edges = edges;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return edges.hasNext();
+        }
+
+        @Override
+        public Edge next() {
+            return edges.next();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return edges.hasPrevious();
+        }
+
+        @Override
+        public Edge previous() {
+            return edges.previous();
+        }
+
+        @Override
+        public int nextIndex() {
+            return edges.nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+            return edges.previousIndex();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Remove edges through the neighbors list");
+        }
+
+        @Override
+        public void set(Edge edge) {
+            throw new UnsupportedOperationException("Replace edges through the neighbors list");
+        }
+
+        @Override
+        public void add(Edge edge) {
+            throw new UnsupportedOperationException("Add edges through the neighbors list");
+        }
     }
 }
 
+// An edge never changes once built; to re-cost one, replace it in its source's neighbors list.
 class Edge {
-    public Node target;
-    public double cost;
+    public final Node target;
+    public final double cost;
 
     public Edge(Node target, double cost) {
         this.target = target;
@@ -38,51 +216,190 @@ class Edge {
 }
 
 public class AStarAlgorithm {
+    private static volatile PathCache<Node, List<Node>> pathCache; // null while caching is off
+    private static volatile SearchListener listener; // null unless search statistics are collected
+
+    // Reports the statistics of every search to listener, e.g. a SearchMetrics; null turns it off.
+    public static void setSearchListener(SearchListener searchListener) {
+        listener = searchListener;
+    }
+
+    // Puts a bounded LRU cache of (start, goal) results in front of aStar.
+    public static void enablePathCache(int maxEntries) {
+        pathCache = new PathCache<>(maxEntries, Node::version);
+    }
+
+    public static void disablePathCache() {
+        pathCache = null;
+    }
+
+    // The active cache, for its hit/miss counters; null while caching is off.
+    public static PathCache<Node, List<Node>> pathCache() {
+        return pathCache;
+    }
 
     public static List<Node> aStar(Node start, Node goal) {
-        PriorityQueue<Node> openList = new PriorityQueue<>();
+        PathCache<Node, List<Node>> cache = pathCache;
+        if (cache == null) {
+            return search(start, goal);
+        }
+        return new ArrayList<>(cache.get(start, goal, AStarAlgorithm::search)); // callers may modify their copy
+    }
+
+    private static List<Node> search(Node start, Node goal) {
+        SearchListener listener = AStarAlgorithm.listener;
+        long began = listener != null ? System.nanoTime() : 0;
+        // Search state lives in the query, not on the nodes, so repeated and concurrent queries
+        // on the same graph don't see each other's costs.
+        Map<Node, Double> cost = new HashMap<>(); // g cost
+        Map<Node, Node> parent = new HashMap<>();
+        IndexedPriorityQueue<Node> openList = new IndexedPriorityQueue<>();
         Set<Node> closedList = new HashSet<>();
 
-        start.cost = 0;
-        start.f = start.heuristic;
-        openList.add(start);
+        cost.put(start, 0.0);
+        openList.add(start, start.heuristic);
+        long searching = listener != null ? System.nanoTime() : 0;
 
+        // counters for the listener
+        long pops = 0;
+        long relaxed = 0;
+        long pushes = 1;
+        long decreases = 0;
+        long reopenings = 0;
+        int peakOpen = 1;
+        Node found = null;
         while (!openList.isEmpty()) {
             Node current = openList.poll();
+            pops++;
 
             if (current.equals(goal)) {
-                return reconstructPath(current);
+                found = current;
+                break;
             }
 
             closedList.add(current);
 
-            for (Edge edge : current.neighbors) {
+            ArrayList<Edge> edges = current.neighbors;
+            for (int i = 0; i < edges.size(); i++) {
+                Edge edge = edges.get(i);
                 Node neighbor = edge.target;
+                relaxed++;
                 if (closedList.contains(neighbor)) {
+                    if (listener != null && cost.get(current) + edge.cost < cost.get(neighbor)) {
+                        reopenings++; // only possible with an inconsistent heuristic; counted, not reopened
+                    }
                     continue;
                 }
 
-                double tentativeG = current.cost + edge.cost;
+                double tentativeG = cost.get(current) + edge.cost;
 
-                if (!openList.contains(neighbor) || tentativeG < neighbor.cost) {
-                    neighbor.parent = current;
-                    neighbor.cost = tentativeG;
-                    neighbor.f = neighbor.cost + neighbor.heuristic;
+                boolean queued = openList.contains(neighbor);
+                if (!queued || tentativeG < cost.get(neighbor)) {
+                    parent.put(neighbor, current);
+                    cost.put(neighbor, tentativeG);
+                    double f = tentativeG + neighbor.heuristic;
 
-                    if (!openList.contains(neighbor)) {
-                        openList.add(neighbor);
+                    if (queued) {
+                        openList.decreaseKey(neighbor, f); // re-sift so the heap order stays valid
+                        decreases++;
+                    } else {
+                        openList.add(neighbor, f);
+                        pushes++;
+                        peakOpen = Math.max(peakOpen, openList.size());
                     }
                 }
             }
         }
-        return new ArrayList<>(); // empty list means no path found
+
+        long pathing = listener != null ? System.nanoTime() : 0;
+        List<Node> path = found != null ? reconstructPath(parent, found) : new ArrayList<>(); // empty list means no path found
+        if (listener != null) {
+            listener.searchFinished(new SearchStats().record(found != null, closedList.size(), relaxed, pushes, pops,
+                    decreases, reopenings, peakOpen, closedList.size(), began, searching, pathing));
+        }
+        return path;
+    }
+
+    // Same path shape as aStar, optionally searched from both ends at once. The bidirectional mode
+    // runs on the compiled form of start's graph, since it needs the reverse edges.
+    public static List<Node> aStar(Node start, Node goal, boolean bidirectional) {
+        if (!bidirectional) {
+            return aStar(start, goal);
+        }
+        return compiled(start).bidirectionalAStar(start, goal, listener, node -> node); // empty means no path
+    }
+
+    // The whole graph of node in compact form, with its reverse built on first use. It is compiled
+    // by the first query that needs it and shared until an edge of the graph changes, so repeated
+    // queries pay no O(V + E) setup. h costs are read at compile time.
+    static CompiledGraph<Node> compiled(Node node) {
+        return node.graph.compiled((List<Node> nodes) -> {
+            CompiledGraph<Node> compiled = new CompiledGraph<>(nodes, ADJACENCY);
+            compiled.graph.reverse();
+            return compiled;
+        });
     }
 
-    private static List<Node> reconstructPath(Node node) {
+    // How CompiledGraph reads a Node.
+    static final CompiledGraph.Adjacency<Node> ADJACENCY = new CompiledGraph.Adjacency<Node>() {
+        @Override
+        public String name(Node node) {
+            return node.name;
+        }
+
+        @Override
+        public double heuristic(Node node) {
+            return node.heuristic;
+        }
+
+        @Override
+        public int degree(Node node) {
+            return node.neighbors.size();
+        }
+
+        @Override
+        public void forEachEdge(Node node, ObjDoubleConsumer<Node> edge) {
+            for (int i = 0; i < node.neighbors.size(); i++) {
+                edge.accept(node.neighbors.get(i).target, node.neighbors.get(i).cost);
+            }
+        }
+    };
+
+    // Anytime variant for callers with a deadline rather than a need for the optimum: starts with
+    // the heuristic inflated by weight (e.g. 3) for a fast first path and keeps improving it until
+    // budgetNanos or maxExpansions is used up. The result holds the best path and its proven
+    // suboptimality bound. Like the bidirectional mode it runs on the compiled form of the graph,
+    // which is shared between queries, so the budget only covers the search. The first query
+    // after an edit compiles the graph, and that time counts against its budget too.
+    public static AnytimeResult<List<Node>> anytimeAStar(Node start, Node goal, double weight,
+            long budgetNanos, long maxExpansions) {
+        long began = System.nanoTime();
+        CompiledGraph<Node> compiled = compiled(start);
+        return compiled.anytimeAStar(start, goal, weight, budgetNanos - (System.nanoTime() - began), maxExpansions,
+                listener, node -> node);
+    }
+
+    // Compiles a Node/Edge graph into the compact CSR form. The vertex id of a node is its
+    // position in nodes, so every edge target must be in the list as well.
+    public static CsrGraph compile(List<Node> nodes) {
+        return CompiledGraph.compile(nodes, ADJACENCY);
+    }
+
+    // Shortest-path costs from every source to every target, computed in parallel on the compiled
+    // form of their graph, the snapshot the bidirectional and anytime modes share. All sources and
+    // targets must be in the same graph.
+    public static DistanceMatrix distanceMatrix(List<Node> sources, List<Node> targets) {
+        if (sources.isEmpty() || targets.isEmpty()) {
+            return new DistanceMatrix(sources.size(), targets.size(), false);
+        }
+        return compiled(sources.get(0)).distanceMatrix(sources, targets);
+    }
+
+    private static List<Node> reconstructPath(Map<Node, Node> parent, Node node) {
         List<Node> path = new ArrayList<>();
         while (node != null) {
             path.add(0, node);
-            node = node.parent;
+            node = parent.get(node);
         }
         return path;
     }
@@ -115,5 +432,18 @@ public class AStarAlgorithm {
         for (Node node : path) {
             System.out.println(node.name);
         }
+
+        for (Node node : aStar(S, G, true)) {
+            System.out.println(node.name);
+        }
+
+        AnytimeResult<List<Node>> anytime = anytimeAStar(S, G, 3, Long.MAX_VALUE, 5); // at most 5 expansions, no time limit
+        System.out.println("Anytime: " + anytime);
+
+        // Same query on the compact form
+        CsrGraph compact = compile(Arrays.asList(S, A, B, C, D, E, F, G));
+        for (int v : compact.aStar(0, 7)) {
+            System.out.println(compact.name(v));
+        }
     }
 }
@@ -1,86 +1,411 @@
 import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
 
-class Node {
-    char name;
-    double heuristic;
-    Map<Node, Double> neighbors;
+public class AStarGraph {
+    //Nested so that it does not clash with the Node class of AStarAlgorithm when both files are compiled together.
+    static class Node {
+        static final AtomicInteger nextId = new AtomicInteger();
+        final int id = nextId.getAndIncrement(); //Key of the node in a search's SearchStateMap.
+        char name;
+        double heuristic; //Must not change once the node has an edge, compiled graphs keep the old value.
+        private final Map<Node, Double> edges = new HashMap<>(); //A map linking neighboring nodes and the cost to travel to them.
+        final Map<Node, Double> neighbors = new Neighbors(); //The same map. Every change through it bumps the graph's version.
+        final GraphVersion graph = new GraphVersion(this); //So cached paths of this node's graph know when they may be stale.
+
+        public Node(char name, double heuristic) {
+            this.name = name;
+            this.heuristic = heuristic;
+        }
+
+        public void addNeighbor(Node neighbor, double cost) { //Adds a neighboring node and the cost to reach it.
+            neighbors.put(neighbor, cost); //Also re-costs an existing edge.
+        }
+
+        //Writes run under the GraphVersion lock and record themselves, so a compile never sees half an edit.
+        //The views are read-only; the default Map methods (merge, compute, ...) go through put and remove.
+        private class Neighbors extends AbstractMap<Node, Double> {
+            private final Set<Map.Entry<Node, Double>> entries = Collections.unmodifiableMap(edges).entrySet();
+            private final Set<Node> keys = Collections.unmodifiableSet(edges.keySet());
+            private final Collection<Double> values = Collections.unmodifiableCollection(edges.values());
+
+            @Override
+            public Double put(Node neighbor, Double cost) {
+                return GraphVersion.edgeChanged(graph, neighbor.graph, () -> edges.put(neighbor, cost));
+            }
+
+            @Override
+            public Double remove(Object neighbor) {
+                return GraphVersion.edgeChanged(graph, graph, () -> edges.remove(neighbor));
+            }
+
+            @Override
+            public void clear() {
+                GraphVersion.edgeChanged(graph, graph, () -> {
+                    edges.clear();
+                    return null;
+                });
+            }
+
+            @Override
+            public Double get(Object neighbor) {
+                return edges.get(neighbor);
+            }
+
+            @Override
+            public boolean containsKey(Object neighbor) {
+                return edges.containsKey(neighbor);
+            }
+
+            @Override
+            public int size() {
+                return edges.size();
+            }
+
+            @Override
+            public Set<Map.Entry<Node, Double>> entrySet() {
+                return entries;
+            }
+
+            @Override
+            public Set<Node> keySet() {
+                return keys;
+            }
+
+            @Override
+            public Collection<Double> values() {
+                return values;
+            }
+        }
+    }
+
+    private static volatile PathCache<Node, List<Character>> pathCache; //null while caching is off
+    private static volatile SearchListener listener; //null unless search statistics are collected
 
-    public Node(char name, double heuristic) {
-        this.name = name;
-        this.heuristic = heuristic;
-        this.neighbors = new HashMap<>(); //A map linking neighboring nodes and the cost to travel to them.
+    public static void setSearchListener(SearchListener searchListener) { //Reports the statistics of every search, null turns it off.
+        listener = searchListener;
     }
 
-    public void addNeighbor(Node neighbor, double cost) { //Adds a neighboring node and the cost to reach it.
-        neighbors.put(neighbor, cost);
+    public static void enablePathCache(int maxEntries) { //Puts a bounded LRU cache of (start, goal) results in front of aStar.
+        pathCache = new PathCache<>(maxEntries, node -> node.graph.get());
     }
-}
 
-public class AStarGraph {
-    public static List<Character> aStar(Node start, Node goal) { 
-        //Main method to find the shortest path from the start node to the goal node.
-        Map<Node, Double> gScore = new HashMap<>(); //A map holding the cost of the cheapest path from the start to each node.
-        Map<Node, Double> fScore = new HashMap<>(); //A map holding the estimated 
-        //total cost (gScore + heuristic) from the start to the goal through each node.
-        Map<Node, Node> cameFrom = new HashMap<>(); //A map used to reconstruct the path.
+    public static void disablePathCache() {
+        pathCache = null;
+    }
 
-        PriorityQueue<Node> openSet = new PriorityQueue<>(Comparator.comparingDouble(fScore::get));
-        //A priority queue of nodes to be evaluated, sorted by their fScore.
-        Set<Node> closedSet = new HashSet<>();
-        // A set of nodes already evaluated.
+    public static PathCache<Node, List<Character>> pathCache() { //The active cache, for its hit/miss counters.
+        return pathCache;
+    }
 
-        for (Node node : Arrays.asList(start, goal)) {
-            gScore.put(node, Double.POSITIVE_INFINITY);
-            fScore.put(node, Double.POSITIVE_INFINITY);
+    public static List<Character> aStar(Node start, Node goal) {
+        PathCache<Node, List<Character>> cache = pathCache;
+        if (cache == null) {
+            return search(start, goal);
         }
-        //Set gScore and fScore for all nodes to infinity, except the start node 
-        //(gScore is 0 and fScore is its heuristic value).
-        gScore.put(start, 0.0);
-        fScore.put(start, start.heuristic);
+        List<Character> path = cache.get(start, goal, AStarGraph::search);
+        return path == null ? null : new ArrayList<>(path); //Callers may modify their copy.
+    }
+
+    private static List<Character> search(Node start, Node goal) { 
+        //Main method to find the shortest path from the start node to the goal node.
+        SearchListener listener = AStarGraph.listener;
+        long began = listener != null ? System.nanoTime() : 0;
+        SearchStateMap state = new SearchStateMap(); //Node id -> gScore, fScore, parent entry and closed flag.
+        //It is a primitive open-addressing map that only grows with the nodes the search touches,
+        //so no Double is boxed per relaxation and nothing is allocated per expanded node.
+        List<Node> nodes = new ArrayList<>(); //Entry number -> node, to get from an entry back to its neighbors.
 
-        openSet.add(start);
+        IndexedMinHeap openSet = new IndexedMinHeap(16);
+        //A priority queue of entry numbers to be evaluated, keyed by their fScore. The keys are
+        //stored in the heap itself, so comparisons never go through a map lookup.
 
+        int startEntry = state.insert(start.id);
+        nodes.add(start);
+        state.update(startEntry, 0, start.heuristic, -1); //gScore of the start is 0 and fScore is its heuristic value.
+        openSet.add(startEntry, start.heuristic);
+        long searching = listener != null ? System.nanoTime() : 0;
+
+        long pops = 0; //Counters for the listener.
+        long relaxed = 0;
+        long pushes = 1;
+        long decreases = 0;
+        long reopenings = 0;
+        int peakOpen = 1;
+        int found = -1;
         while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
+            int current = openSet.poll();
+            pops++;
+            Node currentNode = nodes.get(current);
 
-            if (current == goal) {
-                return reconstructPath(cameFrom, current);
+            if (currentNode == goal) {
+                found = current;
+                break;
             }
 
-            closedSet.add(current);
+            state.close(current);
+            double currentG = state.g(current);
 
-            for (Map.Entry<Node, Double> neighborEntry : current.neighbors.entrySet()) {
+            for (Map.Entry<Node, Double> neighborEntry : currentNode.edges.entrySet()) {
                 Node neighbor = neighborEntry.getKey();
-                double tentativeGScore = gScore.get(current) + neighborEntry.getValue();
+                double tentativeGScore = currentG + neighborEntry.getValue();
+                relaxed++;
 
-                if (closedSet.contains(neighbor)) {
+                int entry = state.indexOf(neighbor.id);
+                if (entry < 0) { //First time this search sees the neighbor.
+                    entry = state.insert(neighbor.id);
+                    nodes.add(neighbor);
+                } else if (state.isClosed(entry)) {
+                    if (listener != null && tentativeGScore < state.g(entry)) {
+                        reopenings++; //Only possible with an inconsistent heuristic. Counted, not reopened.
+                    }
                     continue;
                 }
 
-                if (!openSet.contains(neighbor) || tentativeGScore < gScore.get(neighbor)) {
-                    cameFrom.put(neighbor, current);
-                    gScore.put(neighbor, tentativeGScore);
-                    fScore.put(neighbor, tentativeGScore + neighbor.heuristic);
+                if (tentativeGScore < state.g(entry)) {
+                    double fScore = tentativeGScore + neighbor.heuristic;
+                    state.update(entry, tentativeGScore, fScore, current);
 
-                    if (!openSet.contains(neighbor)) {
-                        openSet.add(neighbor);
+                    if (openSet.contains(entry)) {
+                        openSet.decreaseKey(entry, fScore);
+                        decreases++;
+                    } else {
+                        openSet.add(entry, fScore);
+                        pushes++;
+                        peakOpen = Math.max(peakOpen, openSet.size());
                     }
                 }
             }
         }
 
-        return null; // No path found
+        long pathing = listener != null ? System.nanoTime() : 0;
+        List<Character> path = found >= 0 ? reconstructPath(state, nodes, found) : null; // null means no path found
+        if (listener != null) {
+            long closed = found >= 0 ? pops - 1 : pops;
+            listener.searchFinished(new SearchStats().record(found >= 0, closed, relaxed, pushes, pops,
+                    decreases, reopenings, peakOpen, closed, began, searching, pathing));
+        }
+        return path;
     }
 
-    public static List<Character> reconstructPath(Map<Node, Node> cameFrom, Node current) {
+    //Incremental planner (Lifelong Planning A*) for one start/goal pair whose edge costs keep changing.
+    //It keeps its g values between calls. After updateEdge, replan only re-expands the nodes whose
+    //cost-to-come actually changed, instead of searching the whole graph again.
+    //Node heuristics must be consistent, and cost changes must go through updateEdge.
+    static class IncrementalPlanner {
+        private final Node start;
+        private final Node goal;
+        private final Map<Node, Double> g = new HashMap<>(); //Cost-to-come as of the last expansion.
+        private final Map<Node, Double> rhs = new HashMap<>(); //One-step lookahead: best g(pred) + cost(pred, node).
+        private final Map<Node, List<Node>> predecessors = new HashMap<>(); //Reverse edges, found by walking from start.
+        private final IndexedPriorityQueue<Node> openSet = new IndexedPriorityQueue<>();
+        //Nodes whose g and rhs disagree, keyed by [min(g, rhs) + h, min(g, rhs)].
+        private long expansions; //Total nodes expanded so far, to see how much a replan cost.
+        private long relaxed; //Counters of the current replan for the listener.
+        private long pushes;
+        private int peakOpen;
+
+        IncrementalPlanner(Node start, Node goal) {
+            this.start = start;
+            this.goal = goal;
+            discover(start);
+            rhs.put(start, 0.0);
+            openSet.add(start, start.heuristic, 0);
+        }
+
+        private void discover(Node from) { //Records the predecessors of every node reachable from "from".
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(from);
+            predecessors.putIfAbsent(from, new ArrayList<>());
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                for (Node neighbor : node.neighbors.keySet()) {
+                    boolean isNew = !predecessors.containsKey(neighbor);
+                    List<Node> preds = predecessors.computeIfAbsent(neighbor, k -> new ArrayList<>());
+                    if (!preds.contains(node)) {
+                        preds.add(node);
+                    }
+                    if (isNew) {
+                        stack.push(neighbor);
+                    }
+                }
+            }
+        }
+
+        private double g(Node node) {
+            return g.getOrDefault(node, Double.POSITIVE_INFINITY);
+        }
+
+        private double rhs(Node node) {
+            return rhs.getOrDefault(node, Double.POSITIVE_INFINITY);
+        }
+
+        private void updateVertex(Node node) { //Recomputes rhs and puts the node in the open set if it is inconsistent.
+            if (node != start) {
+                double best = Double.POSITIVE_INFINITY;
+                for (Node pred : predecessors.get(node)) {
+                    best = Math.min(best, g(pred) + pred.neighbors.get(node));
+                }
+                rhs.put(node, best);
+            }
+            openSet.remove(node);
+            double k2 = Math.min(g(node), rhs(node));
+            if (g(node) != rhs(node)) {
+                openSet.add(node, k2 + node.heuristic, k2);
+                pushes++;
+                peakOpen = Math.max(peakOpen, openSet.size());
+            }
+        }
+
+        public void updateEdge(Node from, Node to, double cost) { //Adds or re-costs an edge. POSITIVE_INFINITY removes it in effect.
+            boolean known = predecessors.containsKey(from);
+            from.addNeighbor(to, cost);
+            if (!known) {
+                return; //Not reachable from start, so it cannot affect any path yet.
+            }
+            if (!predecessors.containsKey(to)) {
+                discover(to);
+            }
+            List<Node> preds = predecessors.get(to);
+            if (!preds.contains(from)) {
+                preds.add(from);
+            }
+            updateVertex(to);
+        }
+
+        public List<Character> replan() { //Repairs the g values and returns the current shortest path, or null.
+            SearchListener listener = AStarGraph.listener;
+            long began = listener != null ? System.nanoTime() : 0;
+            long expansionsBefore = expansions;
+            relaxed = 0;
+            pushes = 0; //Nodes queued by updateEdge before this replan are not counted.
+            peakOpen = openSet.size();
+            while (!openSet.isEmpty()) {
+                double goalK2 = Math.min(g(goal), rhs(goal));
+                double goalK1 = goalK2 + goal.heuristic;
+                boolean topBeforeGoal = openSet.peekKey() < goalK1
+                        || (openSet.peekKey() == goalK1 && openSet.peekTie() < goalK2);
+                if (!topBeforeGoal && rhs(goal) == g(goal)) {
+                    break;
+                }
+                Node current = openSet.poll();
+                expansions++;
+                if (g(current) > rhs(current)) { //Overconsistent: its cost went down, settle it.
+                    g.put(current, rhs(current));
+                    for (Node neighbor : current.neighbors.keySet()) {
+                        relaxed++;
+                        updateVertex(neighbor);
+                    }
+                } else { //Underconsistent: its cost went up, reset it and let it be recomputed.
+                    g.put(current, Double.POSITIVE_INFINITY);
+                    updateVertex(current);
+                    for (Node neighbor : current.neighbors.keySet()) {
+                        relaxed++;
+                        updateVertex(neighbor);
+                    }
+                }
+            }
+            long pathing = listener != null ? System.nanoTime() : 0;
+            List<Character> path = g(goal) == Double.POSITIVE_INFINITY ? null : currentPath(); // null means no path found
+            if (listener != null) { //The planner has no separate setup phase, so it all counts as search time.
+                long expanded = expansions - expansionsBefore;
+                listener.searchFinished(new SearchStats().record(path != null, expanded, relaxed, pushes, expanded,
+                        0, 0, peakOpen, g.size(), began, began, pathing));
+            }
+            return path;
+        }
+
+        private List<Character> currentPath() {
+            //Walk back from the goal, always to the predecessor the goal's g value came through.
+            List<Character> path = new ArrayList<>();
+            Node current = goal;
+            path.add(current.name);
+            while (current != start) {
+                Node bestPred = null;
+                double best = Double.POSITIVE_INFINITY;
+                for (Node pred : predecessors.get(current)) {
+                    double viaPred = g(pred) + pred.neighbors.get(current);
+                    if (viaPred < best) {
+                        best = viaPred;
+                        bestPred = pred;
+                    }
+                }
+                current = bestPred;
+                path.add(0, current.name);
+            }
+            return path;
+        }
+
+        public long expansions() {
+            return expansions;
+        }
+    }
+
+    public static AnytimeResult<List<Character>> anytimeAStar(Node start, Node goal, double weight,
+            long budgetNanos, long maxExpansions) {
+        //Anytime search for callers with a deadline: the first path comes from the heuristic multiplied
+        //by weight, and later rounds lower the weight and improve the path until the budget is spent.
+        //The result holds the best path and a proven bound on its cost relative to the optimum.
+        //It runs on the compact form of start's graph, compiled by the first query after an edit and
+        //shared until the next one, so only that first query spends part of its budget compiling.
+        long began = System.nanoTime();
+        CompiledGraph<Node> compiled = compiled(start);
+        return compiled.anytimeAStar(start, goal, weight, budgetNanos - (System.nanoTime() - began), maxExpansions,
+                listener, node -> node.name);
+    }
+
+    static CompiledGraph<Node> compiled(Node node) { //The graph of node in compact form, shared until its next edit.
+        return node.graph.compiled((List<Node> nodes) -> new CompiledGraph<>(nodes, ADJACENCY));
+    }
+
+    //How CompiledGraph reads a Node.
+    static final CompiledGraph.Adjacency<Node> ADJACENCY = new CompiledGraph.Adjacency<Node>() {
+        @Override
+        public String name(Node node) {
+            return String.valueOf(node.name);
+        }
+
+        @Override
+        public double heuristic(Node node) {
+            return node.heuristic;
+        }
+
+        @Override
+        public int degree(Node node) {
+            return node.edges.size();
+        }
+
+        @Override
+        public void forEachEdge(Node node, ObjDoubleConsumer<Node> edge) {
+            for (Map.Entry<Node, Double> neighborEntry : node.edges.entrySet()) {
+                edge.accept(neighborEntry.getKey(), neighborEntry.getValue());
+            }
+        }
+    };
+
+    public static DistanceMatrix distanceMatrix(List<Node> sources, List<Node> targets) {
+        //Shortest-path costs from every source to every target, one Dijkstra sweep per source, in parallel.
+        //It runs on the same compiled snapshot of the graph as anytimeAStar. All sources and targets
+        //must be in the same graph.
+        if (sources.isEmpty() || targets.isEmpty()) {
+            return new DistanceMatrix(sources.size(), targets.size(), false);
+        }
+        return compiled(sources.get(0)).distanceMatrix(sources, targets);
+    }
+
+    static CsrGraph compile(List<Node> nodes) {
+        //Builds the compact CSR form of the nodes. The vertex id of a node is its position in the list,
+        //so every neighbor must be in the list as well.
+        return CompiledGraph.compile(nodes, ADJACENCY);
+    }
+
+    static List<Character> reconstructPath(SearchStateMap state, List<Node> nodes, int entry) {
         //Reconstructs the path from the goal to the start node.
-        //Starting from the goal node, the method traces back to the start node using the cameFrom map.
-        //The path is built in reverse order and then reversed to get the correct start-to-goal sequence.
+        //Starting from the goal's entry, the method follows the parent entries back to the start node.
+        //Each name is added at the front, so the path comes out in start-to-goal order.
         List<Character> path = new ArrayList<>();
-        path.add(current.name);
-        while (cameFrom.containsKey(current)) {
-            current = cameFrom.get(current);
-            path.add(0, current.name);
+        for (; entry >= 0; entry = state.parent(entry)) {
+            path.add(0, nodes.get(entry).name);
         }
         return path;
     }
@@ -112,5 +437,16 @@ public class AStarGraph {
         } else {
             System.out.println("No path found from S to G");
         }
+
+        IncrementalPlanner planner = new IncrementalPlanner(S, G); //Replanning after a cost change.
+        planner.replan();
+        planner.updateEdge(C, D, 5);
+        System.out.println("After C->D costs 5:" + planner.replan());
+
+        AnytimeResult<List<Character>> anytime = anytimeAStar(S, G, 3, Long.MAX_VALUE, 5); //At most 5 expansions.
+        System.out.println("Anytime:" + anytime.path + " (" + anytime + ")");
+
+        DistanceMatrix matrix = distanceMatrix(Arrays.asList(S, A), Arrays.asList(F, G)); //2 x 2 queries, C->D still costs 5.
+        System.out.println("S->G costs " + matrix.distance(0, 1) + ", A->F costs " + matrix.distance(1, 0));
     }
 }
@@ -0,0 +1,31 @@
+// Outcome of an anytime search: the best path found before the budget ran out, with a proven
+// bound on how far its cost can be from the optimum. P is the path type of the graph flavour,
+// int[] for a CsrGraph and a List for the Node graphs.
+public class AnytimeResult<P> {
+    public final P path; // empty if no path was found
+    public final double cost; // POSITIVE_INFINITY if no path was found
+    public final double bound; // cost <= bound * optimal cost, so 1 means proven optimal
+    public final int solutions; // number of improving paths found along the way
+    public final long expanded; // vertices expanded over all rounds
+    public final boolean complete; // the search stopped on its own rather than on the budget
+
+    AnytimeResult(P path, double cost, double bound, int solutions, long expanded, boolean complete) {
+        this.path = path;
+        this.cost = cost;
+        this.bound = bound;
+        this.solutions = solutions;
+        this.expanded = expanded;
+        this.complete = complete;
+    }
+
+    // The same result with the path translated to another graph flavour.
+    <Q> AnytimeResult<Q> withPath(Q path) {
+        return new AnytimeResult<>(path, cost, bound, solutions, expanded, complete);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cost %.3f, bound %.3f, %d solutions, %d expanded%s",
+                cost, bound, solutions, expanded, complete ? "" : ", budget spent");
+    }
+}
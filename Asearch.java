@@ -1,22 +1,19 @@
+import java.io.*;
+import java.nio.file.*;
 import java.util.*;
 
-class PuzzleNode implements Comparable<PuzzleNode> {
+class PuzzleNode {
     int[][] state; //A 2D array representing the puzzle's current state.
     int g; // The cost to reach this state, calculated as the depth of the node.
     int h; // The heuristic value, calculated as the number of misplaced tiles.
     PuzzleNode parent; //A reference to the parent node in the path.
 
     public PuzzleNode(int[][] state, int g, int h, PuzzleNode parent) {
-        this.state = state; //The initial state of the puzzle.
-        this.g = g; // The goal state to reach.
+        this.state = state; //The state of the puzzle at this step of the path.
+        this.g = g; //Number of moves from the initial state.
         this.h = h;
         this.parent = parent;
     }
-
-    @Override
-    public int compareTo(PuzzleNode other) {
-        return Integer.compare(this.g + this.h, other.g + other.h);
-    }
 }
 
 public class Asearch {
@@ -25,105 +22,277 @@ public class Asearch {
 
     static int[][] moves = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}}; // Possible moves: down, up, right, left
 
-    public static void main(String[] args) {
-        PriorityQueue<PuzzleNode> openList = new PriorityQueue<>();
-        Set<String> closedList = new HashSet<>();
+    static volatile SearchListener listener; //Receives the statistics of every solve when set (e.g. a SearchMetrics).
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--ida")) { //Memory-bounded IDA* on any N x N board: --ida [--pdb file] followed by the tiles row by row.
+            solveWithIda(args);
+            return;
+        }
+        if (args.length > 2 && args[0].equals("--batch")) { //Bulk solving: --batch <input> <output> [threads] [pdb file].
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            PatternDatabase patterns = args.length > 4 ? PatternDatabase.map(Paths.get(args[4])) : null;
+            PuzzleBatch batch = new PuzzleBatch(threads, patterns);
+            long began = System.nanoTime();
+            try {
+                batch.run(Paths.get(args[1]), Paths.get(args[2]));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            System.out.println(batch + " in " + (System.nanoTime() - began) / 1_000_000 + " ms");
+            return;
+        }
+        if (args.length > 1 && args[0].equals("--bfs")) { //Layer-by-layer enumeration on disk: --bfs <dir> [n] [pattern tiles, comma-separated].
+            int n = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+            int[] pattern = args.length > 3 ? Arrays.stream(args[3].split(",")).mapToInt(Integer::parseInt).toArray() : new int[0];
+            List<Long> sizes = new ExternalBfs(Paths.get(args[1]), n, pattern, 1 << 22).run();
+            long total = 0;
+            for (int d = 0; d < sizes.size(); d++) {
+                System.out.println("distance " + d + ": " + sizes.get(d) + " states");
+                total += sizes.get(d);
+            }
+            System.out.println(total + " states in total");
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--parallel")) { //Hash-distributed A* on all cores: --parallel [threads].
+            int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+            HdaStarSolver solver = new HdaStarSolver(threads);
+            try {
+                String solution = solver.solve(initial);
+                if (solution != null) {
+                    System.out.println(solution.length() + " moves of the blank: " + solution);
+                    System.out.println(solver.nodes() + " nodes on " + threads + " threads");
+                } else {
+                    System.out.println("No solution found!");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        SearchMetrics metrics = args.length > 0 && args[0].equals("--stats") ? new SearchMetrics() : null;
+        listener = metrics;
+        PuzzleNode goalNode = solve(initial);
+        if (goalNode != null) {
+            System.out.println("Goal state reached!");  
+            printSolutionPath(goalNode); //Prints the path from the initial state to the goal state.
+        } else {
+            System.out.println("No solution found!");
+        }
+        if (metrics != null) {
+            System.out.println(metrics);
+        }
+    }
+
+    static void solveWithIda(String[] args) throws IOException {
+        int first = 1; //Index of the first tile argument.
+        PatternDatabase patterns = null;
+        if (args.length > 2 && args[1].equals("--pdb")) { //Tables written by PatternDatabase, mapped rather than read.
+            patterns = PatternDatabase.map(Paths.get(args[2]));
+            first = 3;
+        }
+        int[][] start = initial;
+        if (args.length > first) {
+            int n = (int) Math.round(Math.sqrt(args.length - first));
+            if (n * n != args.length - first) {
+                throw new IllegalArgumentException("Expected N*N tiles but got " + (args.length - first));
+            }
+            start = new int[n][n];
+            for (int cell = 0; cell < n * n; cell++) {
+                start[cell / n][cell % n] = Integer.parseInt(args[first + cell]);
+            }
+        }
+        if (patterns != null && patterns.size() != start.length) {
+            throw new IllegalArgumentException("The pattern database is for " + patterns.size() + "x" + patterns.size() + " boards");
+        }
+        IdaStarSolver solver = patterns != null ? new IdaStarSolver(patterns) : new IdaStarSolver(start.length);
+        long began = System.nanoTime();
+        String solution = solver.solve(start);
+        long millis = (System.nanoTime() - began) / 1_000_000;
+        if (solution == null) {
+            System.out.println("No solution found!");
+        } else {
+            System.out.println(solution.length() + " moves of the blank: " + solution);
+        }
+        System.out.println(solver.nodes() + " nodes in " + millis + " ms");
+    }
+
+    //States are packed into a long, 4 bits per tile with cell 0 (top left) in the lowest bits,
+    //so puzzles up to 4x4 fit. A state is then a plain number: making a move is a few shifts,
+    //and the closed list is a primitive hash map instead of a set of Arrays.deepToString strings.
+    //The value stored per state is g << 5 | closed << 4 | the blank's cell in the parent state,
+    //which is enough to walk the path back without keeping a node object per state.
+    private static final int CLOSED = 1 << 4;
+    private static final int PARENT_BLANK = CLOSED - 1;
+
+    static PuzzleNode solve(int[][] start) { //Runs the search from start. Returns the goal node, whose parent links give the path, or null.
+        int n = start.length;
+        if (n > 4) {
+            throw new IllegalArgumentException("A " + n + "x" + n + " puzzle does not fit in 64 bits");
+        }
+        SearchListener listener = Asearch.listener;
+        long began = listener != null ? System.nanoTime() : 0;
+        long startState = pack(start);
+        long goalState = pack(n == goal.length ? goal : orderedGoal(n));
+        int[][] adjacent = adjacentCells(n); //For each cell of the blank, the cells it can swap with.
+        int[] goalTile = new int[n * n]; //Tile that belongs in each cell.
+        for (int cell = 0; cell < n * n; cell++) {
+            goalTile[cell] = tile(goalState, cell);
+        }
 
-        PuzzleNode initialNode = new PuzzleNode(initial, 0, calculateH(initial), null); 
-        openList.offer(initialNode); //An initial PuzzleNode is created and added to the openList.
+        PuzzleQueue openList = new PuzzleQueue();
+        LongIntHashMap bestG = new LongIntHashMap(1 << 12); //Best known g of every state seen so far, plus its closed flag and parent.
+        int startBlank = blankCell(startState, n);
+        bestG.put(startState, startBlank);
+        openList.add(PuzzleQueue.priority(misplaced(startState, goalState, n), 0), startState, startBlank);
+        long searching = listener != null ? System.nanoTime() : 0;
 
+        long pops = 0; //Counters for the listener.
+        long relaxed = 0;
+        long pushes = 1;
+        long decreases = 0;
+        long expanded = 0;
+        int peakOpen = 1;
+        boolean found = false;
         while (!openList.isEmpty()) { //The main loop continues until the openList is empty.
-            //In each iteration, the node with the lowest g+h is polled from the queue.
-            PuzzleNode currentNode = openList.poll();
-            closedList.add(Arrays.deepToString(currentNode.state));
-
-            if (Arrays.deepEquals(currentNode.state, goal)) {
-                System.out.println("Goal state reached!");  
-                printSolutionPath(currentNode); //Prints the path from the initial state to the goal state.
-                return;
+            //In each iteration, the state with the lowest g+h (and the highest g among equal ones) is taken off the queue.
+            int priority = openList.peekPriority();
+            long state = openList.peekState();
+            int blank = openList.peekBlank();
+            openList.poll();
+            pops++;
+
+            int entry = bestG.get(state);
+            int g = PuzzleQueue.g(priority);
+            if ((entry & CLOSED) != 0 || g > entry >>> 5) {
+                continue; //A stale copy: the state was queued again with a lower g, or is already expanded.
+            }
+            if (state == goalState) {
+                found = true;
+                break;
             }
+            bestG.put(state, entry | CLOSED);
+            expanded++;
 
-            int[] blankPos = findBlankPosition(currentNode.state); //Finds the position of the blank tile (0).
-
-            for (int[] move : moves) { //for - each loop: This loop iterates over the moves array, which represents all possible moves that the blank tile can make. In the context of an 8-puzzle, these moves are typically up, down, left, and right.
-                int newX = blankPos[0] + move[0];
-                int newY = blankPos[1] + move[1];
-                //blankPos is an array with two elements, representing the current row 
-                //(blankPos[0]) and column (blankPos[1]) of the blank tile in the puzzle.
-                //move[0] and move[1] are the row and column changes defined by the current move. 
-                //For example, a move up could be represented as {-1, 0} (row -1, column unchanged), 
-                //and a move right could be {0, 1} (row unchanged, column +1).
-
-                if (isValidMove(newX, newY)) {
-                    int[][] newState = new int[3][3];
-                    copyState(currentNode.state, newState); //Copies the puzzle state from one array to another.
-                    swap(newState, blankPos[0], blankPos[1], newX, newY); //Swaps two tiles in the puzzle
-
-                    String newStateString = Arrays.deepToString(newState);
-                    if (!closedList.contains(newStateString)) {
-                        int newG = currentNode.g + 1;
-                        int newH = calculateH(newState); //Calculates the heuristic value (h).
-                        PuzzleNode successor = new PuzzleNode(newState, newG, newH, currentNode);
-                        openList.offer(successor);
-                    }
+            int h = (priority >>> 16) - g;
+            for (int cell : adjacent[blank]) { //Every tile next to the blank can slide into it.
+                relaxed++;
+                int tile = tile(state, cell);
+                long next = state & ~(0xFL << 4 * cell) | (long) tile << 4 * blank; //The tile moves to the blank's cell and the blank to its cell.
+                int nextG = g + 1;
+                int nextEntry = bestG.get(next);
+                if (nextEntry != LongIntHashMap.MISSING && ((nextEntry & CLOSED) != 0 || nextEntry >>> 5 <= nextG)) {
+                    continue; //Already expanded, or already queued at least as cheaply.
                 }
+                if (nextEntry != LongIntHashMap.MISSING) {
+                    decreases++; //Queued before with a higher g; the old copy will be skipped.
+                }
+                //Only the moved tile changes place, so h changes by whether it left or entered its goal cell.
+                int nextH = h + (goalTile[blank] == tile ? 0 : 1) - (goalTile[cell] == tile ? 0 : 1);
+                bestG.put(next, nextG << 5 | blank);
+                openList.add(PuzzleQueue.priority(nextG + nextH, nextG), next, cell);
+                pushes++;
+                peakOpen = Math.max(peakOpen, openList.size());
             }
         }
 
-        System.out.println("No solution found!");
+        long pathing = listener != null ? System.nanoTime() : 0;
+        PuzzleNode goalNode = found ? reconstructPath(bestG, startState, goalState, goalState, n) : null;
+        if (listener != null) {
+            listener.searchFinished(new SearchStats().record(found, expanded, relaxed, pushes, pops,
+                    decreases, 0, peakOpen, expanded, began, searching, pathing));
+        }
+        return goalNode;
     }
 
-    static int[] findBlankPosition(int[][] state) {
-        int[] position = new int[2];
-        for (int i = 0; i < state.length; i++) {
-            for (int j = 0; j < state[i].length; j++) {
-                if (state[i][j] == 0) {
-                    position[0] = i;
-                    position[1] = j;
-                    return position;
-                }
-            }
+    static PuzzleNode reconstructPath(LongIntHashMap bestG, long startState, long goalState, long state, int n) {
+        //Walks back from state by moving the blank to its cell in the parent, then links up PuzzleNodes from the start.
+        List<Long> states = new ArrayList<>();
+        states.add(state);
+        while (state != startState) {
+            int blank = blankCell(state, n);
+            int parentBlank = bestG.get(state) & PARENT_BLANK;
+            state = state & ~(0xFL << 4 * parentBlank) | (long) tile(state, parentBlank) << 4 * blank;
+            states.add(state);
+        }
+        PuzzleNode node = null;
+        for (int i = states.size() - 1; i >= 0; i--) {
+            long s = states.get(i);
+            node = new PuzzleNode(unpack(s, n), states.size() - 1 - i, misplaced(s, goalState, n), node);
         }
-        return position;
+        return node;
     }
 
-    static boolean isValidMove(int x, int y) {
-        return x >= 0 && x < 3 && y >= 0 && y < 3;
+    static long pack(int[][] state) {
+        int n = state.length;
+        long packed = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                packed |= (long) state[i][j] << 4 * (i * n + j);
+            }
+        }
+        return packed;
     }
 
-    static void copyState(int[][] src, int[][] dest) {
-        for (int i = 0; i < src.length; i++) { //The method uses a for loop to iterate through each row of the src array.
-            System.arraycopy(src[i], 0, dest[i], 0, src[i].length);
-            //src[i]: Specifies the source array (row) to be copied.
-            //0: The starting position in the source array (from the beginning of the row).
-            //dest[i]: Specifies the destination array (row) where the contents are to be copied.
-            //0: The starting position in the destination array (from the beginning of the row).
-            //src[i].length: The number of elements to be copied (the entire length of the row).
+    static int[][] unpack(long packed, int n) {
+        int[][] state = new int[n][n];
+        for (int cell = 0; cell < n * n; cell++) {
+            state[cell / n][cell % n] = tile(packed, cell);
         }
+        return state;
+    }
+
+    static int tile(long packed, int cell) {
+        return (int) (packed >>> 4 * cell) & 0xF;
     }
 
-    static void swap(int[][] state, int x1, int y1, int x2, int y2) { //Swaps two tiles in the puzzle.
-        int temp = state[x1][y1];
-        state[x1][y1] = state[x2][y2];
-        state[x2][y2] = temp;
+    static int blankCell(long packed, int n) {
+        for (int cell = 0; cell < n * n; cell++) {
+            if (tile(packed, cell) == 0) {
+                return cell;
+            }
+        }
+        throw new IllegalArgumentException("The puzzle has no blank tile");
     }
 
-    static int calculateH(int[][] state) { //The heuristic used here is based on the number of misplaced tiles in the current state compared to the goal state
+    static int misplaced(long packed, long goalState, int n) {
+        //The heuristic used here is based on the number of misplaced tiles in the current state compared to the goal state.
+        //The blank tile (0) is not counted as a misplaced tile.
         int h = 0;
-        for (int i = 0; i < state.length; i++) {
-            for (int j = 0; j < state[i].length; j++) {
-                //state[i][j] != goal[i][j]: This checks if the current tile 
-                //in the state does not match the corresponding tile in the goal state.
-                //state[i][j] != 0: This ensures that the blank tile (represented by 0) 
-                //is not counted as a misplaced tile.
-                if (state[i][j] != goal[i][j] && state[i][j] != 0) {
-                    h++;
-                }
+        for (int cell = 0; cell < n * n; cell++) {
+            int tile = tile(packed, cell);
+            if (tile != 0 && tile != tile(goalState, cell)) {
+                h++;
             }
         }
         return h;
     }
 
+    static int[][] orderedGoal(int n) { //1, 2, ..., n*n - 1 with the blank last, like the 3x3 goal.
+        int[][] state = new int[n][n];
+        for (int cell = 0; cell < n * n - 1; cell++) {
+            state[cell / n][cell % n] = cell + 1;
+        }
+        return state;
+    }
+
+    static int[][] adjacentCells(int n) {
+        int[][] adjacent = new int[n * n][];
+        for (int cell = 0; cell < n * n; cell++) {
+            int[] cells = new int[4];
+            int count = 0;
+            for (int[] move : moves) { //Possible moves of the blank: down, up, right, left.
+                int x = cell / n + move[0];
+                int y = cell % n + move[1];
+                if (x >= 0 && x < n && y >= 0 && y < n) {
+                    cells[count++] = x * n + y;
+                }
+            }
+            adjacent[cell] = Arrays.copyOf(cells, count);
+        }
+        return adjacent;
+    }
+
     static void printSolutionPath(PuzzleNode node) {
         List<PuzzleNode> path = new ArrayList<>();
         while (node != null) {
@@ -132,18 +301,20 @@ public class Asearch {
         }
         Collections.reverse(path);
 
+        StringBuilder out = new StringBuilder(); //The whole path is built first and printed with one call.
         for (PuzzleNode n : path) {
-            printState(n.state);
-            System.out.println();
+            appendState(out, n.state);
+            out.append('\n');
         }
+        System.out.print(out);
     }
 
-    static void printState(int[][] state) {
+    static void appendState(StringBuilder out, int[][] state) {
         for (int i = 0; i < state.length; i++) {
             for (int j = 0; j < state[i].length; j++) {
-                System.out.print(state[i][j] + " ");
+                out.append(state[i][j]).append(' ');
             }
-            System.out.println();
+            out.append('\n');
         }
     }
 }
@@ -0,0 +1,66 @@
+import java.util.concurrent.*;
+import java.util.function.*;
+import java.util.stream.*;
+
+// Runs many routing queries against one CsrGraph in parallel. Every worker thread uses its own
+// SearchContext, so queries share the graph but no scratch state.
+public class BatchRouter {
+    private final CsrGraph graph;
+    private final ForkJoinPool pool;
+    private final SearchListener listener; // gets every query or sweep of a batch, may be null
+
+    public BatchRouter(CsrGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public BatchRouter(CsrGraph graph, ForkJoinPool pool) {
+        this(graph, pool, null);
+    }
+
+    public BatchRouter(CsrGraph graph, ForkJoinPool pool, SearchListener listener) {
+        this.graph = graph;
+        this.pool = pool;
+        this.listener = listener;
+    }
+
+    // Independent start/goal pairs, one A* query each. Row i of the result holds pair i.
+    public DistanceMatrix pairs(int[] starts, int[] goals, boolean withPaths) {
+        if (starts.length != goals.length) {
+            throw new IllegalArgumentException("Got " + starts.length + " starts but " + goals.length + " goals");
+        }
+        DistanceMatrix result = new DistanceMatrix(starts.length, 1, withPaths);
+        run(starts.length, i -> {
+            SearchContext context = graph.context();
+            int[] path = context.aStar(starts[i], goals[i], graph.heuristic, listener);
+            result.distances[i] = path.length > 0 ? context.g(goals[i]) : Double.POSITIVE_INFINITY;
+            if (withPaths) {
+                result.paths[i] = path;
+            }
+        });
+        return result;
+    }
+
+    // Every source to every target. Each source is a single Dijkstra sweep that stops once all
+    // targets are settled, instead of targets.length separate searches.
+    public DistanceMatrix manyToMany(int[] sources, int[] targets, boolean withPaths) {
+        DistanceMatrix result = new DistanceMatrix(sources.length, targets.length, withPaths);
+        run(sources.length, row -> graph.context().oneToMany(sources[row], targets,
+                result.distances, result.paths, row * targets.length, listener));
+        return result;
+    }
+
+    public DistanceMatrix oneToMany(int source, int[] targets, boolean withPaths) {
+        return manyToMany(new int[] {source}, targets, withPaths);
+    }
+
+    private void run(int count, IntConsumer task) {
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Batch interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch query failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+// Bidirectional A* on a CsrGraph: a forward search from the start over the graph and a backward
+// search from the goal over its reverse, each with its own SearchContext.
+//
+// Both sides use the average potential p(v) = (h(v, goal) - h(start, v)) / 2 forward and -p(v)
+// backward. The two potentials sum to zero, so the reduced edge costs are the same in both
+// directions and the usual bidirectional Dijkstra stopping rule applies to the keys directly:
+// once the two smallest open keys add up to at least the best meeting cost mu, no shorter path
+// can exist. This needs h to be consistent, like plain A* with a closed list already does.
+public class BidirectionalSearch {
+    final CsrGraph graph;
+    final SearchContext forward;
+    final SearchContext backward;
+    double cost; // cost of the last path found, POSITIVE_INFINITY if there was none
+
+    public BidirectionalSearch(CsrGraph graph) {
+        this.graph = graph;
+        this.forward = new SearchContext(graph);
+        this.backward = new SearchContext(graph.reverse());
+    }
+
+    public double cost() {
+        return cost;
+    }
+
+    public int[] aStar(int start, int goal) {
+        return aStar(start, goal, graph.heuristic);
+    }
+
+    public int[] aStar(int start, int goal, Heuristic heuristic) {
+        return aStar(start, goal, heuristic, null);
+    }
+
+    // listener, if not null, gets the statistics of this query only.
+    public int[] aStar(int start, int goal, Heuristic heuristic, SearchListener listener) {
+        long began = listener != null ? System.nanoTime() : 0;
+        forward.reset();
+        backward.reset();
+        forward.reach(start, 0, -1);
+        forward.openList.add(start, potential(heuristic, start, goal, start));
+        backward.reach(goal, 0, -1);
+        backward.openList.add(goal, -potential(heuristic, start, goal, goal));
+        long searching = listener != null ? System.nanoTime() : 0;
+
+        long expanded = 0; // counters for the listener, over both sides
+        long relaxed = 0;
+        long pushes = 2;
+        long decreases = 0;
+        int peakOpen = 2;
+
+        double mu = start == goal ? 0 : Double.POSITIVE_INFINITY;
+        int meet = start == goal ? start : -1;
+        while (!forward.openList.isEmpty() && !backward.openList.isEmpty()) {
+            if (forward.openList.peekKey() + backward.openList.peekKey() >= mu) {
+                break;
+            }
+            // Expand the side with the smaller frontier, it is the cheaper one to grow.
+            boolean expandForward = forward.openList.size() <= backward.openList.size();
+            SearchContext side = expandForward ? forward : backward;
+            SearchContext other = expandForward ? backward : forward;
+            double sign = expandForward ? 1 : -1;
+
+            int current = side.openList.poll();
+            side.close(current);
+            expanded++;
+            CsrGraph sideGraph = side.graph;
+            double currentG = side.g[current];
+            for (int e = sideGraph.edgesBegin(current); e < sideGraph.edgesBegin(current + 1); e++) {
+                int neighbor = sideGraph.target(e);
+                relaxed++;
+                if (side.isClosed(neighbor)) {
+                    continue;
+                }
+                double tentativeG = currentG + sideGraph.cost(e);
+                if (tentativeG < side.g(neighbor)) {
+                    side.reach(neighbor, tentativeG, current);
+                    double key = tentativeG + sign * potential(heuristic, start, goal, neighbor);
+                    if (side.openList.contains(neighbor)) {
+                        side.openList.decreaseKey(neighbor, key);
+                        decreases++;
+                    } else {
+                        side.openList.add(neighbor, key);
+                        pushes++;
+                        peakOpen = Math.max(peakOpen, forward.openList.size() + backward.openList.size());
+                    }
+                    double through = tentativeG + other.g(neighbor);
+                    if (through < mu) {
+                        mu = through;
+                        meet = neighbor;
+                    }
+                }
+            }
+        }
+
+        cost = mu;
+        long pathing = listener != null ? System.nanoTime() : 0;
+        int[] path = meet == -1 ? new int[0] : joinPaths(meet); // empty path means no path found
+        if (listener != null) {
+            listener.searchFinished(forward.stats.record(meet != -1, expanded, relaxed, pushes, expanded, decreases,
+                    0, peakOpen, expanded, began, searching, pathing));
+        }
+        return path;
+    }
+
+    // start .. meet from the forward parents, then meet .. goal from the backward ones.
+    private int[] joinPaths(int meet) {
+        int[] head = forward.reconstructPath(meet); // start .. meet
+        int length = head.length;
+        for (int v = backward.parent[meet]; v != -1; v = backward.parent[v]) {
+            length++;
+        }
+        int[] path = java.util.Arrays.copyOf(head, length);
+        int i = head.length;
+        for (int v = backward.parent[meet]; v != -1; v = backward.parent[v]) {
+            path[i++] = v; // backward parents lead from meet towards the goal
+        }
+        return path;
+    }
+
+    private static double potential(Heuristic heuristic, int start, int goal, int v) {
+        return (heuristic.estimate(v, goal) - heuristic.estimateFrom(start, v)) / 2;
+    }
+}
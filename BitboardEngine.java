@@ -0,0 +1,287 @@
+import java.util.*;
+
+// Game engine for N x N boards where k stones in a row (across, down or diagonal) win, N up to 8.
+// Each side's stones are one long with bit row * N + column set, so making a move is an OR,
+// and a win check tests only the k-in-a-row masks through the cell just played.
+//
+// The search is negamax with alpha-beta pruning and a transposition table. A position and its
+// 7 rotations and reflections have the same value, so the table is keyed by the canonical form,
+// the smallest of the 8, and stores its best move in canonical coordinates. Moves are tried with
+// the table's move first, then by how many lines pass through the cell.
+//
+// Values are from the side to move: 0 for a draw, WIN + empty cells left for a win (so quicker
+// wins score higher), the negative for a loss. A search with a depth limit scores unfinished
+// positions by their open lines, always well below WIN. An engine keeps its table between
+// searches and is not thread-safe.
+public class BitboardEngine {
+    static final int WIN = 1_000_000;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final byte EXACT = 0;
+    private static final byte LOWER = 1; // value is at least the stored one
+    private static final byte UPPER = 2; // value is at most the stored one
+
+    private final int n;
+    private final int k;
+    private final int cells;
+    private final long full; // every cell
+    private final long[] lines; // every k-in-a-row
+    private final long[][] linesThrough; // cell -> lines through it
+    private final int[][] symmetries; // 8 cell maps, identity first
+    private final int[][] inverses; // symmetry -> cell map back
+    private final int[] order; // cells, most lines through them first
+    private final int[] weights; // score of an open line by stones on it
+
+    private final long[] tableMine; // transposition table, one entry per slot, always replaced
+    private final long[] tableTheirs;
+    private final int[] tableValue;
+    private final byte[] tableDepth; // search depth the value is good for
+    private final byte[] tableFlag;
+    private final byte[] tableMove; // best move in canonical coordinates, -1 if none
+    private final int tableMask;
+
+    private long canonicalMine; // results of canonical(), to avoid allocating a pair per node
+    private long canonicalTheirs;
+    private int canonicalSymmetry;
+    private int rootMove;
+    private long nodes;
+
+    public BitboardEngine(int n, int k, int tableBits) {
+        if (n < 1 || n > 8 || k < 1 || k > n) {
+            throw new IllegalArgumentException("Need 1 <= k <= n <= 8, got n = " + n + ", k = " + k);
+        }
+        this.n = n;
+        this.k = k;
+        this.cells = n * n;
+        this.full = cells == 64 ? -1L : (1L << cells) - 1;
+
+        List<Long> found = new ArrayList<>();
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int row = 0; row < n; row++) {
+            for (int col = 0; col < n; col++) {
+                for (int[] d : directions) {
+                    int endRow = row + d[0] * (k - 1);
+                    int endCol = col + d[1] * (k - 1);
+                    if (endRow < 0 || endRow >= n || endCol < 0 || endCol >= n) {
+                        continue;
+                    }
+                    long line = 0;
+                    for (int i = 0; i < k; i++) {
+                        line |= 1L << (row + d[0] * i) * n + col + d[1] * i;
+                    }
+                    if (k > 1 || d == directions[0]) { // a single cell is one line, not four
+                        found.add(line);
+                    }
+                }
+            }
+        }
+        lines = found.stream().mapToLong(Long::longValue).toArray();
+        linesThrough = new long[cells][];
+        Integer[] byLines = new Integer[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            int through = cell;
+            linesThrough[cell] = Arrays.stream(lines).filter(line -> (line >>> through & 1) != 0).toArray();
+            byLines[cell] = cell;
+        }
+        Arrays.sort(byLines, (a, b) -> linesThrough[b].length - linesThrough[a].length);
+        order = Arrays.stream(byLines).mapToInt(Integer::intValue).toArray();
+
+        symmetries = new int[8][cells];
+        inverses = new int[8][cells];
+        for (int s = 0; s < 8; s++) {
+            for (int cell = 0; cell < cells; cell++) {
+                int row = cell / n;
+                int col = cell % n;
+                for (int turn = 0; turn < (s & 3); turn++) { // rotate a quarter turn
+                    int r = col;
+                    col = n - 1 - row;
+                    row = r;
+                }
+                if (s >= 4) { // then mirror
+                    col = n - 1 - col;
+                }
+                symmetries[s][cell] = row * n + col;
+                inverses[s][row * n + col] = cell;
+            }
+        }
+        weights = new int[k + 1];
+        for (int stones = 1; stones <= k; stones++) {
+            weights[stones] = 1 << 2 * (stones - 1);
+        }
+
+        int size = 1 << tableBits;
+        tableMine = new long[size];
+        tableTheirs = new long[size];
+        tableValue = new int[size];
+        tableDepth = new byte[size];
+        tableFlag = new byte[size];
+        tableMove = new byte[size];
+        tableMask = size - 1;
+        Arrays.fill(tableDepth, (byte) -1);
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public int winLength() {
+        return k;
+    }
+
+    // Nodes searched since the engine was made.
+    public long nodes() {
+        return nodes;
+    }
+
+    // Whether stones hold a k-in-a-row through cell.
+    public boolean wins(long stones, int cell) {
+        for (long line : linesThrough[cell]) {
+            if ((stones & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Whether stones hold a k-in-a-row anywhere.
+    public boolean hasWon(long stones) {
+        for (long line : lines) {
+            if ((stones & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isFull(long mine, long theirs) {
+        return (mine | theirs) == full;
+    }
+
+    // Exact value of the position for the side to move; the game must not be over yet.
+    public int solve(long mine, long theirs) {
+        return search(mine, theirs, cells, -INFINITY, INFINITY, true);
+    }
+
+    // Best cell for the side to move looking at most maxDepth moves ahead (the whole game if it is
+    // at least the number of empty cells), or -1 if the board is full.
+    public int bestMove(long mine, long theirs, int maxDepth) {
+        if (isFull(mine, theirs)) {
+            return -1;
+        }
+        rootMove = -1;
+        search(mine, theirs, Math.min(maxDepth, cells), -INFINITY, INFINITY, true);
+        return rootMove;
+    }
+
+    private int search(long mine, long theirs, int depth, int alpha, int beta, boolean root) {
+        nodes++;
+        long occupied = mine | theirs;
+        if (occupied == full) {
+            return 0;
+        }
+        if (depth == 0) {
+            return evaluate(mine, theirs);
+        }
+
+        canonical(mine, theirs);
+        long keyMine = canonicalMine; // the fields are overwritten by the searches below
+        long keyTheirs = canonicalTheirs;
+        int symmetry = canonicalSymmetry;
+        int slot = (int) mix(keyMine * 31 + keyTheirs) & tableMask;
+        int tableMoveCell = -1;
+        if (tableMine[slot] == keyMine && tableTheirs[slot] == keyTheirs && tableDepth[slot] >= 0) {
+            if (tableMove[slot] >= 0) {
+                tableMoveCell = inverses[symmetry][tableMove[slot]];
+            }
+            if (tableDepth[slot] >= depth && !root) {
+                int value = tableValue[slot];
+                byte flag = tableFlag[slot];
+                if (flag == EXACT || (flag == LOWER && value >= beta) || (flag == UPPER && value <= alpha)) {
+                    return value;
+                }
+            }
+        }
+
+        int alphaBefore = alpha;
+        int best = -INFINITY;
+        int bestCell = -1;
+        int empties = cells - Long.bitCount(occupied) - 1; // after this move
+        for (int i = -1; i < cells; i++) {
+            int cell = i < 0 ? tableMoveCell : order[i];
+            if (cell < 0 || (i >= 0 && cell == tableMoveCell) || (occupied >>> cell & 1) != 0) {
+                continue;
+            }
+            long next = mine | 1L << cell;
+            int value = wins(next, cell) ? WIN + empties : -search(theirs, next, depth - 1, -beta, -alpha, false);
+            if (value > best) {
+                best = value;
+                bestCell = cell;
+            }
+            if (value > alpha) {
+                alpha = value;
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+
+        tableMine[slot] = keyMine;
+        tableTheirs[slot] = keyTheirs;
+        tableValue[slot] = best;
+        tableDepth[slot] = (byte) depth;
+        tableFlag[slot] = best <= alphaBefore ? UPPER : best >= beta ? LOWER : EXACT;
+        tableMove[slot] = (byte) symmetries[symmetry][bestCell];
+        if (root) {
+            rootMove = bestCell;
+        }
+        return best;
+    }
+
+    // Open lines: each line only one side has stones on is worth weights[stones] to that side.
+    private int evaluate(long mine, long theirs) {
+        int score = 0;
+        for (long line : lines) {
+            long m = line & mine;
+            long t = line & theirs;
+            if (t == 0 && m != 0) {
+                score += weights[Long.bitCount(m)];
+            } else if (m == 0 && t != 0) {
+                score -= weights[Long.bitCount(t)];
+            }
+        }
+        return Math.max(-WIN / 2, Math.min(WIN / 2, score));
+    }
+
+    // Smallest (mine, theirs) over the 8 symmetries, and which symmetry gave it.
+    private void canonical(long mine, long theirs) {
+        canonicalMine = mine;
+        canonicalTheirs = theirs;
+        canonicalSymmetry = 0;
+        for (int s = 1; s < 8; s++) {
+            long m = transform(mine, symmetries[s]);
+            if (m > canonicalMine) {
+                continue;
+            }
+            long t = transform(theirs, symmetries[s]);
+            if (m < canonicalMine || t < canonicalTheirs) {
+                canonicalMine = m;
+                canonicalTheirs = t;
+                canonicalSymmetry = s;
+            }
+        }
+    }
+
+    private static long transform(long stones, int[] map) {
+        long result = 0;
+        for (long rest = stones; rest != 0; rest &= rest - 1) {
+            result |= 1L << map[Long.numberOfTrailingZeros(rest)];
+        }
+        return result;
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
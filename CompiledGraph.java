@@ -0,0 +1,122 @@
+import java.util.*;
+import java.util.function.*;
+
+// A graph of node objects in compact CsrGraph form, with the vertex id of each node. The node
+// classes of AStarAlgorithm and AStarGraph both compile through here: an Adjacency says how to
+// read a node, and everything else, including the modes that run on the compact form, is shared.
+final class CompiledGraph<N> {
+    // How to read one kind of node.
+    interface Adjacency<N> {
+        String name(N node);
+
+        double heuristic(N node);
+
+        int degree(N node);
+
+        // Calls edge with the target and cost of each outgoing edge, in a stable order.
+        void forEachEdge(N node, ObjDoubleConsumer<N> edge);
+    }
+
+    final List<N> nodes; // vertex id -> node
+    final Map<N, Integer> ids;
+    final CsrGraph graph;
+    private final Adjacency<N> adjacency;
+
+    CompiledGraph(List<N> nodes, Adjacency<N> adjacency) {
+        this.nodes = nodes;
+        this.ids = ids(nodes);
+        this.adjacency = adjacency;
+        this.graph = compile(nodes, ids, adjacency);
+    }
+
+    // The vertex id of a node is its position in nodes, so every edge target must be in the list as well.
+    static <N> CsrGraph compile(List<N> nodes, Adjacency<N> adjacency) {
+        return compile(nodes, ids(nodes), adjacency);
+    }
+
+    private static <N> Map<N, Integer> ids(List<N> nodes) {
+        Map<N, Integer> ids = new HashMap<>();
+        for (N node : nodes) {
+            ids.put(node, ids.size());
+        }
+        return ids;
+    }
+
+    private static <N> CsrGraph compile(List<N> nodes, Map<N, Integer> ids, Adjacency<N> adjacency) {
+        int n = nodes.size();
+        int[] offsets = new int[n + 1];
+        double[] heuristics = new double[n];
+        String[] names = new String[n];
+        for (int v = 0; v < n; v++) {
+            N node = nodes.get(v);
+            offsets[v + 1] = offsets[v] + adjacency.degree(node);
+            heuristics[v] = adjacency.heuristic(node);
+            names[v] = adjacency.name(node);
+        }
+        int[] targets = new int[offsets[n]];
+        double[] costs = new double[offsets[n]];
+        int[] slot = new int[1];
+        for (int v = 0; v < n; v++) {
+            N node = nodes.get(v);
+            slot[0] = offsets[v];
+            adjacency.forEachEdge(node, (target, cost) -> {
+                Integer id = ids.get(target);
+                if (id == null) {
+                    throw new IllegalArgumentException("Edge from " + adjacency.name(node) + " leaves the node list");
+                }
+                targets[slot[0]] = id;
+                costs[slot[0]++] = cost;
+            });
+        }
+        return new CsrGraph(offsets, targets, costs, heuristics, names);
+    }
+
+    // Vertex ids of nodes, which must all be in this graph.
+    int[] idsOf(List<N> nodes) {
+        int[] result = new int[nodes.size()];
+        for (int i = 0; i < result.length; i++) {
+            Integer id = ids.get(nodes.get(i));
+            if (id == null) {
+                throw new IllegalArgumentException("Node " + adjacency.name(nodes.get(i)) + " is not in the graph of "
+                        + adjacency.name(this.nodes.get(0)));
+            }
+            result[i] = id;
+        }
+        return result;
+    }
+
+    // The nodes of a vertex path, each mapped through label.
+    <P> List<P> path(int[] vertices, Function<N, P> label) {
+        List<P> path = new ArrayList<>(vertices.length);
+        for (int v : vertices) {
+            path.add(label.apply(nodes.get(v)));
+        }
+        return path;
+    }
+
+    // Bidirectional A* from start to goal; an empty path if there is none or goal is in another graph.
+    <P> List<P> bidirectionalAStar(N start, N goal, SearchListener listener, Function<N, P> label) {
+        Integer goalId = ids.get(goal);
+        if (goalId == null) {
+            return new ArrayList<>();
+        }
+        return path(graph.aStar(ids.get(start), goalId, true, listener), label);
+    }
+
+    // Anytime weighted A* from start to goal, see CsrGraph.anytimeAStar, with the path mapped through label.
+    <P> AnytimeResult<List<P>> anytimeAStar(N start, N goal, double weight, long budgetNanos, long maxExpansions,
+            SearchListener listener, Function<N, P> label) {
+        Integer goalId = ids.get(goal);
+        if (goalId == null) {
+            return new AnytimeResult<>(new ArrayList<>(), Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, 0, 0, true);
+        }
+        AnytimeResult<int[]> result = graph.anytimeAStar(ids.get(start), goalId, weight, budgetNanos, maxExpansions,
+                listener);
+        return result.withPath(path(result.path, label));
+    }
+
+    // Shortest-path costs from every source to every target, one Dijkstra sweep per source, in parallel.
+    DistanceMatrix distanceMatrix(List<N> sources, List<N> targets) {
+        return new BatchRouter(graph).manyToMany(idsOf(sources), idsOf(targets), false);
+    }
+}
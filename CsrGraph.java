@@ -0,0 +1,153 @@
+import java.nio.*;
+import java.util.*;
+import java.util.function.*;
+
+// A graph in compressed-sparse-row form. Vertices are int ids 0..n-1 and the outgoing
+// edges of vertex v are the slots offsets[v] .. offsets[v + 1] - 1 of targets/costs.
+// Compared to Node/Edge objects this is a few bytes per edge and no pointer chasing.
+// The graph is never modified after construction, so one graph can serve many threads. Search
+// statistics are requested per query, by passing a SearchListener, not set on the graph.
+//
+// The columns are primitive buffers so the same graph can live on the heap (wrapped arrays)
+// or in a memory-mapped GraphFile that is queried in place.
+public class CsrGraph {
+    final IntBuffer offsets; // length n + 1, offsets[n] == number of edges
+    final IntBuffer targets; // target vertex of each edge
+    final DoubleBuffer costs; // cost of each edge
+    final DoubleBuffer heuristics; // h cost of each vertex
+    final IntFunction<String> names; // optional vertex names, may be null
+    final Heuristic heuristic; // the per-vertex h costs the graph was built with
+
+    // Each thread gets its own reusable search context, so concurrent queries never share scratch state.
+    private final ThreadLocal<SearchContext> contexts = ThreadLocal.withInitial(() -> new SearchContext(this));
+    private final ThreadLocal<BidirectionalSearch> bidirectionalSearches =
+            ThreadLocal.withInitial(() -> new BidirectionalSearch(this));
+    private volatile CsrGraph reverse; // built on first use
+
+    public CsrGraph(int[] offsets, int[] targets, double[] costs, double[] heuristics, String[] names) {
+        this(IntBuffer.wrap(offsets), IntBuffer.wrap(targets), DoubleBuffer.wrap(costs),
+                DoubleBuffer.wrap(heuristics), names == null ? null : v -> names[v]);
+        if (names != null && names.length != heuristics.length) {
+            throw new IllegalArgumentException("Expected " + heuristics.length + " names but got " + names.length);
+        }
+    }
+
+    CsrGraph(IntBuffer offsets, IntBuffer targets, DoubleBuffer costs, DoubleBuffer heuristics, IntFunction<String> names) {
+        int n = heuristics.capacity();
+        if (offsets.capacity() != n + 1 || targets.capacity() != costs.capacity()
+                || offsets.get(n) != targets.capacity()) {
+            throw new IllegalArgumentException("Inconsistent CSR arrays");
+        }
+        this.offsets = offsets;
+        this.targets = targets;
+        this.costs = costs;
+        this.heuristics = heuristics;
+        this.names = names;
+        this.heuristic = (v, goal) -> heuristics.get(v);
+    }
+
+    public int vertexCount() {
+        return heuristics.capacity();
+    }
+
+    public int edgeCount() {
+        return targets.capacity();
+    }
+
+    public String name(int v) {
+        return names != null ? names.apply(v) : String.valueOf(v);
+    }
+
+    // First edge slot of v; its edges end where the ones of v + 1 begin.
+    int edgesBegin(int v) {
+        return offsets.get(v);
+    }
+
+    int target(int e) {
+        return targets.get(e);
+    }
+
+    double cost(int e) {
+        return costs.get(e);
+    }
+
+    double heuristic(int v) {
+        return heuristics.get(v);
+    }
+
+    public SearchContext newContext() {
+        return new SearchContext(this);
+    }
+
+    // The same graph with every edge turned around, sharing heuristics and names. Built once on
+    // first use, on the heap even for a mapped graph; a racing second build is harmless because
+    // both results are identical.
+    public CsrGraph reverse() {
+        CsrGraph result = reverse;
+        if (result == null) {
+            int n = vertexCount();
+            int m = edgeCount();
+            int[] reverseOffsets = new int[n + 1];
+            for (int e = 0; e < m; e++) {
+                reverseOffsets[target(e) + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                reverseOffsets[v + 1] += reverseOffsets[v];
+            }
+            int[] next = Arrays.copyOf(reverseOffsets, n);
+            int[] reverseTargets = new int[m];
+            double[] reverseCosts = new double[m];
+            for (int v = 0; v < n; v++) {
+                for (int e = edgesBegin(v); e < edgesBegin(v + 1); e++) {
+                    int slot = next[target(e)]++;
+                    reverseTargets[slot] = v;
+                    reverseCosts[slot] = cost(e);
+                }
+            }
+            result = new CsrGraph(IntBuffer.wrap(reverseOffsets), IntBuffer.wrap(reverseTargets),
+                    DoubleBuffer.wrap(reverseCosts), heuristics, names);
+            result.reverse = this;
+            reverse = result;
+        }
+        return result;
+    }
+
+    SearchContext context() {
+        return contexts.get();
+    }
+
+    public int[] aStar(int start, int goal) {
+        return contexts.get().aStar(start, goal);
+    }
+
+    public int[] aStar(int start, int goal, boolean bidirectional) {
+        return aStar(start, goal, heuristic, bidirectional, null);
+    }
+
+    // Reports the statistics of this query to listener, e.g. a SearchMetrics; null reports nothing.
+    public int[] aStar(int start, int goal, boolean bidirectional, SearchListener listener) {
+        return aStar(start, goal, heuristic, bidirectional, listener);
+    }
+
+    // Search with a different heuristic than the stored h costs, e.g. precomputed Landmarks.
+    public int[] aStar(int start, int goal, Heuristic heuristic, boolean bidirectional) {
+        return aStar(start, goal, heuristic, bidirectional, null);
+    }
+
+    public int[] aStar(int start, int goal, Heuristic heuristic, boolean bidirectional, SearchListener listener) {
+        return bidirectional
+                ? bidirectionalSearches.get().aStar(start, goal, heuristic, listener)
+                : contexts.get().aStar(start, goal, heuristic, listener);
+    }
+
+    // Anytime search under a deadline: a fast path from an inflated heuristic, improved until the
+    // budget is spent. See SearchContext.anytimeAStar; Long.MAX_VALUE turns a limit off.
+    public AnytimeResult<int[]> anytimeAStar(int start, int goal, double weight, long budgetNanos, long maxExpansions) {
+        return anytimeAStar(start, goal, weight, budgetNanos, maxExpansions, null);
+    }
+
+    public AnytimeResult<int[]> anytimeAStar(int start, int goal, double weight, long budgetNanos, long maxExpansions,
+            SearchListener listener) {
+        return contexts.get().anytimeAStar(start, goal, heuristic, weight, budgetNanos, maxExpansions, listener);
+    }
+}
@@ -0,0 +1,34 @@
+// Result of a batch of routing queries: a row-major rows x cols table of shortest-path costs
+// (POSITIVE_INFINITY when unreachable) and, if requested, the vertex paths behind them.
+public class DistanceMatrix {
+    final int rows;
+    final int cols;
+    final double[] distances;
+    final int[][] paths; // null when paths were not requested
+
+    DistanceMatrix(int rows, int cols, boolean withPaths) {
+        this.rows = rows;
+        this.cols = cols;
+        this.distances = new double[rows * cols];
+        this.paths = withPaths ? new int[rows * cols][] : null;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public double distance(int row, int col) {
+        return distances[row * cols + col];
+    }
+
+    public int[] path(int row, int col) {
+        if (paths == null) {
+            throw new IllegalStateException("Paths were not requested for this batch");
+        }
+        return paths[row * cols + col];
+    }
+}
@@ -0,0 +1,300 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Breadth-first enumeration of a sliding-puzzle state space that does not fit in memory, one
+// layer (all states at one distance from the goal) at a time. States are packed longs as in
+// Asearch and live on disk in sorted files, stored as varint deltas between consecutive states.
+//
+// Layer d + 1 is built from layer d with delayed duplicate detection: successors are collected in
+// a fixed-size buffer that is sorted and written out as a run whenever it fills, the runs are
+// merged into one sorted stream, and every state already in layer d or d - 1 is dropped on the
+// way (moves are reversible, so an old state can be in no other layer). Every file is read and
+// written sequentially through buffers.
+//
+// With a pattern, only the blank and the pattern tiles are told apart and every other tile reads
+// as the same "don't care" tile, which gives exact distance tables for parts of spaces too
+// large to enumerate, like the 15-puzzle.
+//
+// The work directory holds layer-<d>.bin files and a progress file that is rewritten (by atomic
+// rename) after each layer, so an interrupted run picks up after the last completed layer.
+public class ExternalBfs {
+    static final String PROGRESS = "progress.txt";
+
+    private final Path dir;
+    private final int n;
+    private final int[] pattern; // tiles told apart, empty for the full puzzle
+    private final int chunkStates; // successors held in memory before a run is written
+    private final int[][] adjacent;
+
+    public ExternalBfs(Path dir, int n, int[] pattern, int chunkStates) {
+        if (n > 4) {
+            throw new IllegalArgumentException("A " + n + "x" + n + " puzzle does not fit in 64 bits");
+        }
+        this.dir = dir;
+        this.n = n;
+        this.pattern = pattern.clone();
+        this.chunkStates = chunkStates;
+        this.adjacent = Asearch.adjacentCells(n);
+    }
+
+    // The goal with every non-pattern tile replaced by the lowest tile outside the pattern.
+    long abstractGoal() {
+        long goal = Asearch.pack(Asearch.orderedGoal(n));
+        if (pattern.length == 0) {
+            return goal;
+        }
+        boolean[] kept = new boolean[n * n];
+        for (int tile : pattern) {
+            kept[tile] = true;
+        }
+        int dontCare = 1;
+        while (dontCare < n * n && kept[dontCare]) {
+            dontCare++;
+        }
+        for (int cell = 0; cell < n * n; cell++) {
+            int tile = Asearch.tile(goal, cell);
+            if (tile != 0 && !kept[tile]) {
+                goal = goal & ~(0xFL << 4 * cell) | (long) dontCare << 4 * cell;
+            }
+        }
+        return goal;
+    }
+
+    // Runs (or resumes) the enumeration and returns the number of states in each layer.
+    public List<Long> run() throws IOException {
+        Files.createDirectories(dir);
+        List<Long> sizes = readProgress();
+        if (sizes.isEmpty()) {
+            try (RunWriter out = new RunWriter(layer(0))) {
+                out.write(abstractGoal());
+            }
+            sizes.add(1L);
+            writeProgress(sizes, false);
+        }
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(dir, "*.tmp")) {
+            for (Path file : stale) { // left behind by an interrupted layer
+                Files.delete(file);
+            }
+        }
+        while (sizes.get(sizes.size() - 1) > 0) {
+            int d = sizes.size() - 1;
+            long count = expand(d);
+            sizes.add(count);
+            writeProgress(sizes, count == 0);
+        }
+        return sizes;
+    }
+
+    // Writes layer d + 1 and returns its size.
+    private long expand(int d) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        long[] buffer = new long[chunkStates];
+        int size = 0;
+        try (RunReader frontier = new RunReader(layer(d))) {
+            while (frontier.next()) {
+                long state = frontier.value;
+                int blank = Asearch.blankCell(state, n);
+                for (int cell : adjacent[blank]) {
+                    if (size == buffer.length) {
+                        runs.add(writeRun(d + 1, runs.size(), buffer, size));
+                        size = 0;
+                    }
+                    buffer[size++] = state & ~(0xFL << 4 * cell) | (long) Asearch.tile(state, cell) << 4 * blank;
+                }
+            }
+        }
+        if (size > 0 || runs.isEmpty()) {
+            runs.add(writeRun(d + 1, runs.size(), buffer, size));
+        }
+        buffer = null; // the merge below runs in constant memory
+
+        Path next = dir.resolve("layer-" + (d + 1) + ".bin.tmp");
+        long count = 0;
+        PriorityQueue<RunReader> merge = new PriorityQueue<>(Comparator.comparingLong((RunReader r) -> r.value));
+        try (RunReader current = new RunReader(layer(d));
+                RunReader previous = d > 0 ? new RunReader(layer(d - 1)) : null;
+                RunWriter out = new RunWriter(next)) {
+            for (Path file : runs) {
+                RunReader reader = new RunReader(file);
+                if (reader.next()) {
+                    merge.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+            boolean hasCurrent = current.next();
+            boolean hasPrevious = previous != null && previous.next();
+            long last = 0;
+            boolean any = false;
+            while (!merge.isEmpty()) {
+                RunReader top = merge.poll();
+                long state = top.value;
+                if (top.next()) {
+                    merge.add(top);
+                } else {
+                    top.close();
+                }
+                if (any && state == last) {
+                    continue; // the same successor from two parents
+                }
+                any = true;
+                last = state;
+                while (hasCurrent && current.value < state) {
+                    hasCurrent = current.next();
+                }
+                while (hasPrevious && previous.value < state) {
+                    hasPrevious = previous.next();
+                }
+                if ((hasCurrent && current.value == state) || (hasPrevious && previous.value == state)) {
+                    continue; // already at distance d or d - 1
+                }
+                out.write(state);
+                count++;
+            }
+        } finally {
+            for (RunReader reader : merge) {
+                reader.close();
+            }
+        }
+        for (Path file : runs) {
+            Files.delete(file);
+        }
+        Files.move(next, layer(d + 1), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    private Path writeRun(int layer, int index, long[] buffer, int size) throws IOException {
+        Arrays.sort(buffer, 0, size);
+        Path file = run(layer, index);
+        try (RunWriter out = new RunWriter(file)) {
+            for (int i = 0; i < size; i++) {
+                out.write(buffer[i]);
+            }
+        }
+        return file;
+    }
+
+    private Path layer(int d) {
+        return dir.resolve("layer-" + d + ".bin");
+    }
+
+    private Path run(int layer, int index) {
+        return dir.resolve("run-" + layer + "-" + index + ".tmp");
+    }
+
+    private String configuration() {
+        StringBuilder line = new StringBuilder("puzzle ").append(n);
+        for (int tile : pattern) {
+            line.append(' ').append(tile);
+        }
+        return line.toString();
+    }
+
+    private List<Long> readProgress() throws IOException {
+        List<Long> sizes = new ArrayList<>();
+        Path file = dir.resolve(PROGRESS);
+        if (!Files.exists(file)) {
+            return sizes;
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).equals(configuration())) {
+            throw new IOException(dir + " holds a run for a different puzzle or pattern");
+        }
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.startsWith("layer ")) {
+                sizes.add(Long.parseLong(line.split(" ")[2]));
+            }
+        }
+        return sizes;
+    }
+
+    private void writeProgress(List<Long> sizes, boolean complete) throws IOException {
+        StringBuilder text = new StringBuilder(configuration()).append('\n');
+        for (int d = 0; d < sizes.size(); d++) {
+            text.append("layer ").append(d).append(' ').append(sizes.get(d)).append('\n');
+        }
+        if (complete) {
+            text.append("complete\n");
+        }
+        Path temp = dir.resolve(PROGRESS + ".tmp");
+        Files.write(temp, text.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, dir.resolve(PROGRESS), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Distance of an (abstracted) state from the goal, by scanning the layer files of a finished
+    // run in order; -1 if the state is in none of them.
+    public static int distance(Path dir, long state) throws IOException {
+        for (int d = 0; Files.exists(dir.resolve("layer-" + d + ".bin")); d++) {
+            try (RunReader layer = new RunReader(dir.resolve("layer-" + d + ".bin"))) {
+                while (layer.next() && layer.value <= state) {
+                    if (layer.value == state) {
+                        return d;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    // States in ascending (signed) order as varint deltas from the previous state, the first from 0.
+    // Deltas are taken modulo 2^64, so the step from a negative to a positive state still fits.
+    static final class RunWriter implements Closeable {
+        private final OutputStream out;
+        private long last;
+
+        RunWriter(Path file) throws IOException {
+            out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+        }
+
+        void write(long state) throws IOException {
+            long delta = state - last;
+            last = state;
+            while ((delta & ~0x7FL) != 0) {
+                out.write((int) (delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            out.write((int) delta);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    static final class RunReader implements Closeable {
+        private final InputStream in;
+        long value;
+
+        RunReader(Path file) throws IOException {
+            in = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        }
+
+        // Moves to the next state; false at the end of the file.
+        boolean next() throws IOException {
+            long delta = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = in.read();
+                if (b < 0) {
+                    if (shift > 0) {
+                        throw new EOFException("Run file ends inside a state");
+                    }
+                    return false;
+                }
+                delta |= (long) (b & 0x7F) << shift;
+                if (b < 0x80) {
+                    break;
+                }
+            }
+            value += delta;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
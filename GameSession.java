@@ -0,0 +1,139 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+// One headless game of k-in-a-row on an N x N board (N up to 8), 'x' moving first: the engine API
+// behind TicTacToe, for hosting many games at once without console I/O. Cells are numbered
+// row * N + column. A session belongs to one thread at a time; different sessions can be used
+// from different threads concurrently.
+//
+// bestMove on the 3x3 game is a PerfectPlayTable lookup in one table shared by all sessions.
+// Other boards search with a BitboardEngine borrowed from a per-board pool for the duration of
+// the call, so there are only as many engines (and transposition tables) as searches running at
+// the same moment, however many sessions are open.
+public class GameSession {
+    // Game states, the same characters TicTacToe.checkIfGameOver returns.
+    public static final char ONGOING = ' ';
+    public static final char FULL = 'f';
+
+    private static final Map<Integer, BitboardEngine> RULES = new ConcurrentHashMap<>(); // win checks only
+    private static final Map<Integer, Queue<BitboardEngine>> ENGINES = new ConcurrentHashMap<>();
+    private static final int ENGINE_TABLE_BITS = 16;
+    private static volatile PerfectPlayTable perfect; // built on first 3x3 bestMove unless set
+
+    private final int n;
+    private final int k;
+    private final int searchDepth;
+    private final BitboardEngine rules;
+    private long xs; // stones of 'x'
+    private long os; // stones of 'o'
+    private int moves;
+    private char state = ONGOING;
+
+    // Standard 3x3 TicTacToe with perfect play.
+    public GameSession() {
+        this(3, 3, 9);
+    }
+
+    // bestMove looks searchDepth moves ahead on boards other than 3x3.
+    public GameSession(int n, int k, int searchDepth) {
+        this.n = n;
+        this.k = k;
+        this.searchDepth = searchDepth;
+        this.rules = RULES.computeIfAbsent(key(n, k), key -> new BitboardEngine(n, k, 0));
+    }
+
+    // Shares a table, e.g. one mapped with PerfectPlayTable.map, instead of building one in memory.
+    public static void useTable(PerfectPlayTable table) {
+        perfect = table;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public int moves() {
+        return moves;
+    }
+
+    // 'x' or 'o'.
+    public char toMove() {
+        return (moves & 1) == 0 ? 'x' : 'o';
+    }
+
+    // ONGOING, FULL for a draw, or the mark of the winner.
+    public char state() {
+        return state;
+    }
+
+    // Mark on cell: 'x', 'o' or ' '.
+    public char mark(int cell) {
+        return (xs >>> cell & 1) != 0 ? 'x' : (os >>> cell & 1) != 0 ? 'o' : ' ';
+    }
+
+    // Places the mark of the side to move on cell and returns the new state.
+    public char applyMove(int cell) {
+        if (state != ONGOING || cell < 0 || cell >= n * n || mark(cell) != ' ') {
+            throw new IllegalArgumentException("Cell " + cell + " cannot be played in state '" + state + "'");
+        }
+        char mover = toMove();
+        long stones = mover == 'x' ? (xs |= 1L << cell) : (os |= 1L << cell);
+        moves++;
+        if (rules.wins(stones, cell)) {
+            state = mover;
+        } else if (moves == n * n) {
+            state = FULL;
+        }
+        return state;
+    }
+
+    public char applyMove(int row, int column) {
+        return applyMove(row * n + column);
+    }
+
+    // Best cell for the side to move, or -1 once the game is over.
+    public int bestMove() {
+        if (state != ONGOING) {
+            return -1;
+        }
+        if (n == 3 && k == 3) {
+            PerfectPlayTable table = perfect;
+            if (table == null) {
+                table = sharedTable();
+            }
+            return table.bestMove(PerfectPlayTable.index(xs, os));
+        }
+        Queue<BitboardEngine> pool = ENGINES.computeIfAbsent(key(n, k), key -> new ConcurrentLinkedQueue<>());
+        BitboardEngine engine = pool.poll();
+        if (engine == null) {
+            engine = new BitboardEngine(n, k, ENGINE_TABLE_BITS);
+        }
+        try {
+            return toMove() == 'x' ? engine.bestMove(xs, os, searchDepth) : engine.bestMove(os, xs, searchDepth);
+        } finally {
+            pool.offer(engine);
+        }
+    }
+
+    private static synchronized PerfectPlayTable sharedTable() {
+        if (perfect == null) {
+            perfect = PerfectPlayTable.build();
+        }
+        return perfect;
+    }
+
+    private static int key(int n, int k) {
+        return n << 8 | k;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder board = new StringBuilder();
+        for (int cell = 0; cell < n * n; cell++) {
+            board.append("| ").append(mark(cell)).append(' ');
+            if (cell % n == n - 1) {
+                board.append("|\n");
+            }
+        }
+        return board.toString();
+    }
+}
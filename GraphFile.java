@@ -0,0 +1,287 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Binary on-disk form of a CsrGraph. Numbers are little-endian and every section starts on an
+// 8-byte boundary, so a mapped file can be used as int/double buffers as it is:
+//
+//   header       magic "CSRG", version, vertex count n, edge count m, flags, padding,
+//                then the file position (long) of each of the six sections below
+//   heuristics   double[n]
+//   offsets      int[n + 1]
+//   targets      int[m]
+//   costs        double[m]
+//   nameOffsets  int[n + 1], byte offsets into nameBytes (empty unless FLAG_NAMES)
+//   nameBytes    UTF-8 vertex names (empty unless FLAG_NAMES)
+//
+// map() maps the sections and reads nothing else; pages are faulted in as searches touch them,
+// so startup time does not grow with the graph. Each section is mapped on its own and has to stay
+// under 2 GB, which allows about 268 million edges.
+public class GraphFile {
+    static final int MAGIC = 0x47525343; // "CSRG"
+    static final int VERSION = 1;
+    static final int FLAG_NAMES = 1;
+    static final int SECTIONS = 6;
+    static final int HEADER_BYTES = 24 + 8 * SECTIONS;
+    static final int MAX_VERTEX = Integer.MAX_VALUE - 10; // so int[n + 1] can still be allocated
+
+    public static CsrGraph map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a version " + VERSION + " graph file");
+            }
+            int n = header.getInt(8);
+            int m = header.getInt(12);
+            boolean hasNames = (header.getInt(16) & FLAG_NAMES) != 0;
+            long[] sections = new long[SECTIONS + 1];
+            for (int i = 0; i < SECTIONS; i++) {
+                sections[i] = header.getLong(24 + 8 * i);
+            }
+            sections[SECTIONS] = channel.size();
+
+            DoubleBuffer heuristics = section(channel, sections, 0, 8L * n).asDoubleBuffer();
+            IntBuffer offsets = section(channel, sections, 1, 4L * (n + 1)).asIntBuffer();
+            IntBuffer targets = section(channel, sections, 2, 4L * m).asIntBuffer();
+            DoubleBuffer costs = section(channel, sections, 3, 8L * m).asDoubleBuffer();
+            if (!hasNames) {
+                return new CsrGraph(offsets, targets, costs, heuristics, null);
+            }
+            IntBuffer nameOffsets = section(channel, sections, 4, 4L * (n + 1)).asIntBuffer();
+            ByteBuffer nameBytes = section(channel, sections, 5, sections[6] - sections[5]);
+            return new CsrGraph(offsets, targets, costs, heuristics, v -> {
+                byte[] bytes = new byte[nameOffsets.get(v + 1) - nameOffsets.get(v)];
+                nameBytes.get(nameOffsets.get(v), bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            });
+        }
+    }
+
+    private static ByteBuffer section(FileChannel channel, long[] sections, int index, long size) throws IOException {
+        if (size > Integer.MAX_VALUE || sections[index] + size > sections[index + 1]) {
+            throw new IOException("Graph file section " + index + " is truncated or larger than 2 GB");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, sections[index], size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static void write(CsrGraph graph, Path file) throws IOException {
+        int n = graph.vertexCount();
+        int m = graph.edgeCount();
+        boolean hasNames = graph.names != null;
+        long[] sections = new long[SECTIONS];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output out = new Output(channel, HEADER_BYTES);
+            sections[0] = out.align();
+            for (int v = 0; v < n; v++) {
+                out.putDouble(graph.heuristic(v));
+            }
+            sections[1] = out.align();
+            for (int v = 0; v <= n; v++) {
+                out.putInt(graph.edgesBegin(v));
+            }
+            sections[2] = out.align();
+            for (int e = 0; e < m; e++) {
+                out.putInt(graph.target(e));
+            }
+            sections[3] = out.align();
+            for (int e = 0; e < m; e++) {
+                out.putDouble(graph.cost(e));
+            }
+            sections[4] = out.align();
+            if (hasNames) {
+                int nameOffset = 0;
+                out.putInt(0);
+                for (int v = 0; v < n; v++) {
+                    nameOffset += graph.name(v).getBytes(StandardCharsets.UTF_8).length;
+                    out.putInt(nameOffset);
+                }
+            }
+            sections[5] = out.align();
+            if (hasNames) {
+                for (int v = 0; v < n; v++) {
+                    out.putBytes(graph.name(v).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m).putInt(hasNames ? FLAG_NAMES : 0).putInt(0);
+            for (long section : sections) {
+                header.putLong(section);
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, HEADER_BYTES - header.remaining());
+            }
+        }
+    }
+
+    // Reads a text edge list into a heap graph. One edge per line as "from to cost"; optional
+    // "h vertex heuristic [name]" lines set a vertex's h cost and name. Blank lines and lines
+    // starting with # are skipped. The vertex count is the largest id seen plus one.
+    public static CsrGraph readEdgeList(Path file) throws IOException {
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        double[] cost = new double[1024];
+        int m = 0;
+        Map<Integer, Double> heuristicOf = new HashMap<>();
+        Map<Integer, String> nameOf = new HashMap<>();
+        int n = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                try {
+                    if (fields[0].equals("h")) {
+                        int v = vertex(fields[1], file, lineNumber);
+                        heuristicOf.put(v, Double.parseDouble(fields[2]));
+                        if (fields.length > 3) {
+                            nameOf.put(v, fields[3]);
+                        }
+                        n = Math.max(n, v + 1);
+                        continue;
+                    }
+                    if (m == from.length) {
+                        from = Arrays.copyOf(from, m * 2);
+                        to = Arrays.copyOf(to, m * 2);
+                        cost = Arrays.copyOf(cost, m * 2);
+                    }
+                    from[m] = vertex(fields[0], file, lineNumber);
+                    to[m] = vertex(fields[1], file, lineNumber);
+                    cost[m] = Double.parseDouble(fields[2]);
+                    n = Math.max(n, Math.max(from[m], to[m]) + 1);
+                    m++;
+                } catch (RuntimeException e) {
+                    throw new IOException(file + ":" + lineNumber + ": cannot parse \"" + line + "\"", e);
+                }
+            }
+        }
+
+        // Counting sort by source vertex; edges of one vertex keep their order from the file.
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            offsets[from[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] targets = new int[m];
+        double[] costs = new double[m];
+        for (int e = 0; e < m; e++) {
+            int slot = next[from[e]]++;
+            targets[slot] = to[e];
+            costs[slot] = cost[e];
+        }
+        double[] heuristics = new double[n];
+        heuristicOf.forEach((v, h) -> heuristics[v] = h);
+        String[] names = null;
+        if (!nameOf.isEmpty()) {
+            names = new String[n];
+            for (int v = 0; v < n; v++) {
+                names[v] = nameOf.getOrDefault(v, String.valueOf(v));
+            }
+        }
+        return new CsrGraph(offsets, targets, costs, heuristics, names);
+    }
+
+    // Vertex id of an edge-list field. Ids index the CSR arrays, so negative ones and ones too
+    // large for an array are refused with the line they are on.
+    private static int vertex(String field, Path file, int lineNumber) throws IOException {
+        int v = Integer.parseInt(field);
+        if (v < 0 || v > MAX_VERTEX) {
+            throw new IOException(file + ":" + lineNumber + ": vertex id " + v + " is outside 0.." + MAX_VERTEX);
+        }
+        return v;
+    }
+
+    public static void convert(Path edgeList, Path graphFile) throws IOException {
+        write(readEdgeList(edgeList), graphFile);
+    }
+
+    // Buffered little-endian writer over a file channel.
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+
+        Output(FileChannel channel, long position) throws IOException {
+            this.channel = channel;
+            this.position = position;
+            channel.position(position);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+            position += 4;
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+            position += 8;
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            for (byte b : bytes) {
+                ensure(1);
+                buffer.put(b);
+            }
+            position += bytes.length;
+        }
+
+        // Pads to the next 8-byte boundary and returns the new position.
+        long align() throws IOException {
+            while ((position & 7) != 0) {
+                ensure(1);
+                buffer.put((byte) 0);
+                position++;
+            }
+            return position;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("convert")) {
+            convert(Paths.get(args[1]), Paths.get(args[2]));
+            return;
+        }
+        if (args.length == 4 && args[0].equals("route")) {
+            long begin = System.nanoTime();
+            CsrGraph graph = map(Paths.get(args[1]));
+            System.out.println("Mapped " + graph.vertexCount() + " vertices and " + graph.edgeCount()
+                    + " edges in " + (System.nanoTime() - begin) / 1000 + " us");
+            for (int v : graph.aStar(Integer.parseInt(args[2]), Integer.parseInt(args[3]))) {
+                System.out.println(graph.name(v));
+            }
+            return;
+        }
+        System.out.println("Usage: java GraphFile convert <edges.txt> <graph.bin>");
+        System.out.println("       java GraphFile route <graph.bin> <start> <goal>");
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+// Modification count of one Node graph, so a PathCache only drops answers for the graph that
+// actually changed. Every node starts in a graph of its own. An edge between two graphs joins
+// them union-find style, smaller under larger, and the joined count is set above both old ones.
+// Counts therefore only grow, and a count read for a node never comes back after an edit.
+//
+// The root also keeps the graph's nodes and one compiled form of them, e.g. a CsrGraph, which is
+// reused by every query until the next edit instead of being rebuilt per query.
+//
+// Edits take one global lock, because they are rare next to searches; reading a count does not lock.
+// The edit itself runs under that lock too, and so does a compile, which therefore always sees a
+// whole edge list. Heuristics are read only by the compile and not tracked: a node's heuristic
+// must not change once the node has an edge.
+final class GraphVersion {
+    private static final Object LOCK = new Object();
+
+    private final AtomicLong modifications = new AtomicLong();
+    private volatile GraphVersion joined; // the graph this one was merged into, null for a root
+    private List<Object> nodes = new ArrayList<>(); // nodes of the graph, only kept on a root
+    private volatile Snapshot snapshot; // compiled form and the count it was built at, on a root
+
+    GraphVersion(Object node) {
+        nodes.add(node);
+    }
+
+    // Current count of the graph this node-level version belongs to.
+    long get() {
+        return root().modifications.get();
+    }
+
+    private GraphVersion root() {
+        GraphVersion root = this;
+        for (GraphVersion next = root.joined; next != null; next = root.joined) {
+            root = next;
+        }
+        return root;
+    }
+
+    // Runs change, which adds, re-costs or removes an edge from a node of from to a node of to, and
+    // records it; afterwards both nodes are in the same graph. Returns what change returned.
+    static <T> T edgeChanged(GraphVersion from, GraphVersion to, Supplier<T> change) {
+        synchronized (LOCK) {
+            T result = change.get();
+            GraphVersion a = from.root();
+            GraphVersion b = to.root();
+            if (a == b) {
+                a.modifications.incrementAndGet();
+                return result;
+            }
+            if (a.nodes.size() < b.nodes.size()) {
+                GraphVersion swap = a;
+                a = b;
+                b = swap;
+            }
+            a.modifications.set(Math.max(a.modifications.get(), b.modifications.get()) + 1);
+            a.nodes.addAll(b.nodes);
+            b.nodes = null;
+            b.snapshot = null;
+            b.joined = a;
+            return result;
+        }
+    }
+
+    // build applied to the graph's nodes, in the order they joined, and reused by every caller
+    // until the graph's next edit. build runs under the edit lock, so no edge changes while it
+    // walks the adjacency; only the first caller after an edit pays for it.
+    @SuppressWarnings("unchecked")
+    <N, T> T compiled(Function<List<N>, T> build) {
+        GraphVersion root = root();
+        Snapshot cached = root.snapshot;
+        if (cached != null && cached.version == root.modifications.get()) {
+            return (T) cached.value;
+        }
+        synchronized (LOCK) {
+            root = root();
+            cached = root.snapshot;
+            long version = root.modifications.get();
+            if (cached == null || cached.version != version) {
+                cached = new Snapshot(version, build.apply((List<N>) (List<?>) root.nodes));
+                root.snapshot = cached;
+            }
+            return (T) cached.value;
+        }
+    }
+
+    private static final class Snapshot {
+        final long version;
+        final Object value;
+
+        Snapshot(long version, Object value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+// Hash-distributed A* (HDA*) for sliding puzzles up to 4x4, for hard instances on many cores.
+// Every packed state has one owner worker, picked by a hash of the state, and only the owner
+// keeps it in its open list (PuzzleQueue) and best-g map (LongIntHashMap), so workers never lock
+// each other's structures. A successor owned by another worker is buffered and handed over in
+// batches through that worker's lock-free inbox.
+//
+// Termination and optimality:
+//  - The first time the goal enters its owner's map sets the incumbent, the best solution cost
+//    so far; lower costs found later replace it. Nothing with f >= incumbent is queued or expanded.
+//  - A state reached again with a lower g is queued again even if already expanded, because
+//    another worker may have expanded it first along a worse path.
+//  - work counts busy workers plus batches in flight. A sender counts a batch before queueing it;
+//    an idle worker that takes a batch becomes busy in its place; a worker with nothing left under
+//    the incumbent flushes its buffers and leaves. When work reaches 0 no state with f < incumbent
+//    exists anywhere, so with a consistent heuristic the incumbent is optimal.
+//  - An idle worker parks instead of spinning. It announces that in parked and looks at its inbox
+//    once more before parking; a sender adds the batch first and then unparks the worker if it
+//    sees the flag, so a batch is never left waiting. The worker that ends the search wakes all.
+//
+// The heuristic is Manhattan distance, updated per move. A solver runs one solve at a time.
+public class HdaStarSolver {
+    private static final int BATCH = 256; // most successors per hand-over
+    private static final int EXPANSIONS_PER_ROUND = 64; // expansions between inbox checks
+
+    private final int threads;
+    private int n;
+    private int[][] adjacent;
+    private int[][] distance; // tile -> cell -> Manhattan distance to its goal cell
+    private long goalState;
+    private Worker[] workers;
+    private final AtomicInteger incumbent = new AtomicInteger();
+    private final AtomicInteger work = new AtomicInteger();
+    private volatile boolean finished;
+    private long nodes;
+
+    public HdaStarSolver(int threads) {
+        this.threads = threads;
+    }
+
+    // Nodes expanded by the last solve, over all workers.
+    public long nodes() {
+        return nodes;
+    }
+
+    // Optimal solution as blank moves (D, U, R, L), "" if start is already solved, or null if
+    // start cannot reach the goal.
+    public String solve(int[][] start) throws InterruptedException {
+        n = start.length;
+        if (n > 4) {
+            throw new IllegalArgumentException("A " + n + "x" + n + " puzzle does not fit in 64 bits");
+        }
+        long startState = Asearch.pack(start);
+        int[] tiles = new int[n * n];
+        for (int cell = 0; cell < n * n; cell++) {
+            tiles[cell] = Asearch.tile(startState, cell);
+        }
+        if (!IdaStarSolver.isSolvable(tiles, n)) {
+            return null;
+        }
+        goalState = Asearch.pack(Asearch.orderedGoal(n));
+        adjacent = Asearch.adjacentCells(n);
+        distance = new int[n * n][n * n];
+        for (int tile = 1; tile < n * n; tile++) {
+            for (int cell = 0; cell < n * n; cell++) {
+                distance[tile][cell] = Math.abs((tile - 1) / n - cell / n) + Math.abs((tile - 1) % n - cell % n);
+            }
+        }
+
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+        }
+        incumbent.set(Integer.MAX_VALUE);
+        work.set(threads); // every worker starts busy
+        finished = false;
+        int h = 0;
+        for (int cell = 0; cell < n * n; cell++) {
+            h += distance[tiles[cell]][cell];
+        }
+        int startBlank = Asearch.blankCell(startState, n);
+        workers[owner(startState)].insert(startState, 0, h, startBlank, startBlank);
+
+        Thread[] running = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            running[i] = new Thread(workers[i], "hda-" + i);
+            workers[i].thread = running[i];
+        }
+        for (Thread thread : running) {
+            thread.start();
+        }
+        for (Thread thread : running) {
+            thread.join();
+        }
+        nodes = 0;
+        for (Worker worker : workers) {
+            nodes += worker.expanded;
+        }
+        return reconstructPath(startState);
+    }
+
+    private int owner(long state) {
+        return (int) ((mix(state) & 0x7FFFFFFFL) % threads);
+    }
+
+    // Murmur3 finalizer. Plays the role of a Zobrist hash: states one move apart land on
+    // unrelated workers, which spreads the load.
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    // Follows the parent blanks back from the goal, asking each state's owner, and spells the path
+    // as blank moves like IdaStarSolver. Runs after the workers have been joined, so their maps
+    // are safe to read.
+    private String reconstructPath(long startState) {
+        StringBuilder moves = new StringBuilder();
+        long state = goalState;
+        while (state != startState) {
+            int blank = Asearch.blankCell(state, n);
+            int parentBlank = workers[owner(state)].bestG.get(state) & Worker.PARENT_BLANK;
+            int dx = blank / n - parentBlank / n;
+            int dy = blank % n - parentBlank % n;
+            for (int m = 0; m < 4; m++) {
+                if (Asearch.moves[m][0] == dx && Asearch.moves[m][1] == dy) {
+                    moves.append(IdaStarSolver.MOVE_NAMES.charAt(m));
+                }
+            }
+            state = state & ~(0xFL << 4 * parentBlank) | (long) Asearch.tile(state, parentBlank) << 4 * blank;
+        }
+        return moves.reverse().toString();
+    }
+
+    // Successors for one worker: packed states and g << 16 | h << 8 | blank << 4 | parentBlank.
+    private static final class Batch {
+        final long[] states = new long[BATCH];
+        final int[] infos = new int[BATCH];
+        int size;
+    }
+
+    private final class Worker implements Runnable {
+        static final int CLOSED = 1 << 4; // map values as in Asearch: g << 5 | closed << 4 | parentBlank
+        static final int PARENT_BLANK = CLOSED - 1;
+
+        final int id;
+        final PuzzleQueue open = new PuzzleQueue();
+        final LongIntHashMap bestG = new LongIntHashMap(1 << 12);
+        final ConcurrentLinkedQueue<Batch> inbox = new ConcurrentLinkedQueue<>();
+        final Batch[] outgoing = new Batch[threads];
+        long expanded;
+        Thread thread; // set before any worker starts
+        volatile boolean parked; // idle and about to park or parked, so senders must unpark it
+
+        Worker(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+            boolean busy = true;
+            while (!finished) {
+                for (Batch batch; (batch = inbox.poll()) != null; ) {
+                    if (busy) {
+                        work.decrementAndGet(); // the batch is handled by a worker that is already counted
+                    } else {
+                        busy = true; // the batch's count now stands for this worker
+                    }
+                    for (int i = 0; i < batch.size; i++) {
+                        int info = batch.infos[i];
+                        insert(batch.states[i], info >>> 16, info >>> 8 & 0xFF, info >>> 4 & 0xF, info & 0xF);
+                    }
+                }
+                if (hasWork()) {
+                    busy = true;
+                    for (int i = 0; i < EXPANSIONS_PER_ROUND && hasWork(); i++) {
+                        expand();
+                    }
+                    for (int to = 0; to < threads; to++) {
+                        flush(to); // partial batches too, so no worker waits on a busy one
+                    }
+                } else if (busy) {
+                    for (int to = 0; to < threads; to++) {
+                        flush(to);
+                    }
+                    busy = false;
+                    if (work.decrementAndGet() == 0) {
+                        finished = true;
+                        for (Worker worker : workers) {
+                            LockSupport.unpark(worker.thread);
+                        }
+                    }
+                } else {
+                    parked = true;
+                    if (inbox.isEmpty() && !finished) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                }
+            }
+        }
+
+        boolean hasWork() {
+            return !open.isEmpty() && open.peekPriority() >>> 16 < incumbent.get();
+        }
+
+        void insert(long state, int g, int h, int blank, int parentBlank) {
+            if (g + h >= incumbent.get()) {
+                return; // cannot beat the solution already known
+            }
+            int entry = bestG.get(state);
+            if (entry != LongIntHashMap.MISSING && entry >>> 5 <= g) {
+                return;
+            }
+            bestG.put(state, g << 5 | parentBlank); // clears the closed flag if it was set
+            if (state == goalState) {
+                incumbent.accumulateAndGet(g, Math::min);
+                return;
+            }
+            open.add(PuzzleQueue.priority(g + h, g), state, blank);
+        }
+
+        void expand() {
+            int priority = open.peekPriority();
+            long state = open.peekState();
+            int blank = open.peekBlank();
+            open.poll();
+            int entry = bestG.get(state);
+            int g = PuzzleQueue.g(priority);
+            if ((entry & CLOSED) != 0 || g > entry >>> 5) {
+                return; // stale copy
+            }
+            bestG.put(state, entry | CLOSED);
+            expanded++;
+            int h = (priority >>> 16) - g;
+            for (int cell : adjacent[blank]) {
+                int tile = Asearch.tile(state, cell);
+                long next = state & ~(0xFL << 4 * cell) | (long) tile << 4 * blank;
+                int nextH = h + distance[tile][blank] - distance[tile][cell];
+                int to = owner(next);
+                if (to == id) {
+                    insert(next, g + 1, nextH, cell, blank);
+                } else if (g + 1 + nextH < incumbent.get()) {
+                    Batch batch = outgoing[to];
+                    if (batch == null) {
+                        batch = outgoing[to] = new Batch();
+                    }
+                    batch.states[batch.size] = next;
+                    batch.infos[batch.size++] = (g + 1) << 16 | nextH << 8 | cell << 4 | blank;
+                    if (batch.size == BATCH) {
+                        flush(to);
+                    }
+                }
+            }
+        }
+
+        void flush(int to) {
+            Batch batch = outgoing[to];
+            if (batch != null && batch.size > 0) {
+                work.incrementAndGet(); // counted before it becomes visible, so work never reads 0 early
+                Worker target = workers[to];
+                target.inbox.add(batch);
+                outgoing[to] = null;
+                if (target.parked) {
+                    LockSupport.unpark(target.thread);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+// Admissible estimate of shortest-path cost between two vertices of a CsrGraph.
+public interface Heuristic {
+    // Lower bound on the cost from v to goal.
+    double estimate(int v, int goal);
+
+    // Lower bound on the cost from start to v, used by the backward side of bidirectional search.
+    // Zero is always admissible.
+    default double estimateFrom(int start, int v) {
+        return 0;
+    }
+}
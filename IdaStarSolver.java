@@ -0,0 +1,306 @@
+import java.util.*;
+
+// Iterative-deepening A* for N x N sliding puzzles, for boards whose A* open and closed lists
+// would not fit in memory. Memory is the board, the move stack and a few per-line counters,
+// whatever the depth of the search.
+//
+// The heuristic is Manhattan distance plus linear conflicts. Two tiles that sit in their goal
+// row (or column) in the wrong order cannot pass each other without one leaving the line,
+// which costs two moves the Manhattan distance does not see. Per line this counts the fewest
+// tiles that must leave it: the tiles in the line minus the longest run already in goal order.
+// A move changes the Manhattan distance of one tile and the conflicts of only the two lines it
+// crosses, so h is updated per move rather than recomputed.
+//
+// With a PatternDatabase, h is the larger of that and the sum of the pattern tables. Only the
+// group of the moved tile changes, so a move costs one rank and one table read.
+//
+// The goal is 1, 2, ..., N*N - 1 with the blank last. A solver is reusable but not thread-safe.
+public class IdaStarSolver {
+    static final String MOVE_NAMES = "DURL"; // blank moves, in the order of Asearch.moves
+    private static final int FOUND = -1;
+
+    private final int n;
+    private final PatternDatabase patterns; // null for Manhattan + linear conflicts alone
+    private final int[][] neighbor; // cell -> blank move -> cell the blank moves to, -1 off the board
+    private final int[] goalRow; // tile -> row of its goal cell
+    private final int[] goalCol; // tile -> column of its goal cell
+    private final int[] board; // cell -> tile, 0 for the blank
+    private final int[] rowConflicts; // row -> tiles that must leave it
+    private final int[] colConflicts; // column -> tiles that must leave it
+    private final int[] line; // scratch: goal positions along the line being scored
+    private final int[] runEnds; // scratch: longest-increasing-run table
+    private int blank;
+    private int manhattan;
+    private int conflicts; // sum of rowConflicts and colConflicts
+    private byte[] moves = new byte[64]; // blank move made at each depth of the current path
+    private long nodes;
+    private String solution; // set when the search reaches the goal
+    private int[][] patternCells; // group -> cell of each of its tiles
+    private int[] patternValues; // group -> table value for the current board
+    private int patternSum;
+
+    public IdaStarSolver(int n) {
+        this(n, null);
+    }
+
+    public IdaStarSolver(PatternDatabase patterns) {
+        this(patterns.size(), patterns);
+    }
+
+    private IdaStarSolver(int n, PatternDatabase patterns) {
+        if (n < 2) {
+            throw new IllegalArgumentException("A puzzle needs at least 2x2 cells");
+        }
+        this.n = n;
+        this.patterns = patterns;
+        neighbor = new int[n * n][4];
+        for (int cell = 0; cell < n * n; cell++) {
+            for (int m = 0; m < 4; m++) {
+                int x = cell / n + Asearch.moves[m][0];
+                int y = cell % n + Asearch.moves[m][1];
+                neighbor[cell][m] = x >= 0 && x < n && y >= 0 && y < n ? x * n + y : -1;
+            }
+        }
+        goalRow = new int[n * n];
+        goalCol = new int[n * n];
+        for (int tile = 1; tile < n * n; tile++) {
+            goalRow[tile] = (tile - 1) / n;
+            goalCol[tile] = (tile - 1) % n;
+        }
+        board = new int[n * n];
+        rowConflicts = new int[n];
+        colConflicts = new int[n];
+        line = new int[n];
+        runEnds = new int[n];
+        if (patterns != null) {
+            patternCells = new int[patterns.groupCount()][];
+            for (int g = 0; g < patternCells.length; g++) {
+                patternCells[g] = new int[patterns.groups[g].length];
+            }
+            patternValues = new int[patternCells.length];
+        }
+    }
+
+    // Nodes expanded by the last solve, over all iterations.
+    public long nodes() {
+        return nodes;
+    }
+
+    // Optimal solution as blank moves (D, U, R, L), "" if start is already solved, or null if
+    // start cannot reach the goal.
+    public String solve(int[][] start) {
+        if (start.length != n) {
+            throw new IllegalArgumentException("Expected a " + n + "x" + n + " board");
+        }
+        for (int cell = 0; cell < n * n; cell++) {
+            board[cell] = start[cell / n][cell % n];
+            if (board[cell] == 0) {
+                blank = cell;
+            }
+        }
+        nodes = 0;
+        if (!isSolvable(board, n)) {
+            return null;
+        }
+        manhattan = 0;
+        for (int cell = 0; cell < n * n; cell++) {
+            manhattan += distance(board[cell], cell);
+        }
+        conflicts = 0;
+        for (int i = 0; i < n; i++) {
+            rowConflicts[i] = rowConflicts(i);
+            colConflicts[i] = colConflicts(i);
+            conflicts += rowConflicts[i] + colConflicts[i];
+        }
+        if (patterns != null) {
+            for (int cell = 0; cell < n * n; cell++) {
+                if (board[cell] != 0) {
+                    patternCells[patterns.group(board[cell])][patterns.slot(board[cell])] = cell;
+                }
+            }
+            patternSum = 0;
+            for (int g = 0; g < patternCells.length; g++) {
+                patternValues[g] = patterns.value(g, patternCells[g]);
+                patternSum += patternValues[g];
+            }
+        }
+
+        int bound = h();
+        while (true) { // each iteration searches every path with f <= bound, then raises it to the smallest f beyond
+            if (moves.length <= bound) {
+                moves = new byte[bound * 2];
+            }
+            int next = search(0, bound, -1);
+            if (next == FOUND) {
+                return solution;
+            }
+            bound = next;
+        }
+    }
+
+    private int search(int g, int bound, int previousMove) {
+        int f = g + h();
+        if (f > bound) {
+            return f;
+        }
+        if (manhattan == 0) {
+            StringBuilder path = new StringBuilder(g);
+            for (int i = 0; i < g; i++) {
+                path.append(MOVE_NAMES.charAt(moves[i]));
+            }
+            solution = path.toString();
+            return FOUND;
+        }
+        nodes++;
+
+        int min = Integer.MAX_VALUE;
+        int from = blank;
+        // Move ordering: first the moves that bring their tile closer to its goal cell, since
+        // the last iteration stops at the first solution it meets.
+        for (int pass = 0; pass < 2; pass++) {
+            for (int m = 0; m < 4; m++) {
+                int cell = neighbor[from][m];
+                if (cell < 0 || m == (previousMove ^ 1)) {
+                    continue; // off the board, or straight back to the parent
+                }
+                int tile = board[cell];
+                if ((distance(tile, from) < distance(tile, cell)) != (pass == 0)) {
+                    continue;
+                }
+                // the move touches two rows or two columns; keep their counts to restore them on undo
+                boolean horizontal = m >= 2;
+                int[] lines = horizontal ? colConflicts : rowConflicts;
+                int fromLine = horizontal ? from % n : from / n;
+                int cellLine = horizontal ? cell % n : cell / n;
+                int fromCount = lines[fromLine];
+                int cellCount = lines[cellLine];
+                int conflictsBefore = conflicts;
+                int group = patterns != null ? patterns.group(tile) : 0;
+                int patternBefore = patterns != null ? patternValues[group] : 0;
+                slide(cell);
+                moves[g] = (byte) m;
+                int result = search(g + 1, bound, m);
+                board[from] = 0; // undo
+                board[cell] = tile;
+                blank = from;
+                manhattan += distance(tile, cell) - distance(tile, from);
+                lines[fromLine] = fromCount;
+                lines[cellLine] = cellCount;
+                conflicts = conflictsBefore;
+                if (patterns != null) {
+                    patternCells[group][patterns.slot(tile)] = cell;
+                    patternSum += patternBefore - patternValues[group];
+                    patternValues[group] = patternBefore;
+                }
+                if (result == FOUND) {
+                    return FOUND;
+                }
+                min = Math.min(min, result);
+            }
+        }
+        return min;
+    }
+
+    private int h() {
+        return Math.max(manhattan + 2 * conflicts, patternSum);
+    }
+
+    // Slides the tile at cell into the blank, so the blank moves to cell.
+    private void slide(int cell) {
+        int to = blank;
+        int tile = board[cell];
+        board[to] = tile;
+        board[cell] = 0;
+        blank = cell;
+        manhattan += distance(tile, to) - distance(tile, cell);
+        if (to / n == cell / n) { // horizontal: the tile changed columns
+            updateColumn(to % n);
+            updateColumn(cell % n);
+        } else { // vertical: the tile changed rows
+            updateRow(to / n);
+            updateRow(cell / n);
+        }
+        if (patterns != null) {
+            int group = patterns.group(tile);
+            patternCells[group][patterns.slot(tile)] = to;
+            int value = patterns.value(group, patternCells[group]);
+            patternSum += value - patternValues[group];
+            patternValues[group] = value;
+        }
+    }
+
+    private void updateRow(int row) {
+        int count = rowConflicts(row);
+        conflicts += count - rowConflicts[row];
+        rowConflicts[row] = count;
+    }
+
+    private void updateColumn(int col) {
+        int count = colConflicts(col);
+        conflicts += count - colConflicts[col];
+        colConflicts[col] = count;
+    }
+
+    private int rowConflicts(int row) {
+        int count = 0;
+        for (int col = 0; col < n; col++) {
+            int tile = board[row * n + col];
+            if (tile != 0 && goalRow[tile] == row) {
+                line[count++] = goalCol[tile];
+            }
+        }
+        return count - longestIncreasingRun(count);
+    }
+
+    private int colConflicts(int col) {
+        int count = 0;
+        for (int row = 0; row < n; row++) {
+            int tile = board[row * n + col];
+            if (tile != 0 && goalCol[tile] == col) {
+                line[count++] = goalRow[tile];
+            }
+        }
+        return count - longestIncreasingRun(count);
+    }
+
+    // Length of the longest increasing subsequence of line[0 .. count - 1].
+    private int longestIncreasingRun(int count) {
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            int position = 0; // runEnds[k] is the smallest end of an increasing run of length k + 1
+            while (position < length && runEnds[position] < line[i]) {
+                position++;
+            }
+            runEnds[position] = line[i];
+            if (position == length) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    private int distance(int tile, int cell) {
+        return tile == 0 ? 0 : Math.abs(goalRow[tile] - cell / n) + Math.abs(goalCol[tile] - cell % n);
+    }
+
+    // Whether tiles (cell -> tile, row by row) can reach the goal. A horizontal move changes
+    // nothing below; a vertical one moves a tile past n - 1 others. On odd boards that keeps the
+    // parity of the inversions. On even boards it flips that parity and the blank's row together,
+    // so their sum keeps its parity. Either way the parity must match the goal's.
+    static boolean isSolvable(int[] tiles, int n) {
+        int inversions = 0;
+        int blankRow = 0;
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] == 0) {
+                blankRow = i / n;
+                continue;
+            }
+            for (int j = i + 1; j < tiles.length; j++) {
+                if (tiles[j] != 0 && tiles[j] < tiles[i]) {
+                    inversions++;
+                }
+            }
+        }
+        return n % 2 == 1 ? inversions % 2 == 0 : (inversions + blankRow) % 2 == (n - 1) % 2;
+    }
+}
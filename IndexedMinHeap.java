@@ -0,0 +1,141 @@
+import java.util.*;
+import java.util.function.*;
+
+// Binary min-heap over int ids with a position index. Knowing where every id sits in the heap
+// makes contains O(1) and lets a key be lowered in place in O(log n) instead of re-adding it.
+public class IndexedMinHeap {
+    private int[] heap; // heap slot -> id
+    private int[] position; // id -> heap slot, -1 when the id is not queued
+    private double[] keys; // id -> key
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[Math.max(capacity, 1)];
+        position = new int[Math.max(capacity, 1)];
+        keys = new double[Math.max(capacity, 1)];
+        Arrays.fill(position, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return id < position.length && position[id] >= 0;
+    }
+
+    public double key(int id) {
+        return keys[id];
+    }
+
+    public double peekKey() {
+        return keys[heap[0]];
+    }
+
+    // Id in heap slot 0 .. size() - 1, for looking at every queued id in no particular order.
+    public int idAt(int slot) {
+        return heap[slot];
+    }
+
+    public void add(int id, double key) {
+        if (id >= position.length) {
+            grow(id + 1);
+        }
+        if (position[id] >= 0) {
+            throw new IllegalStateException("Id " + id + " is already queued");
+        }
+        keys[id] = key;
+        heap[size] = id;
+        position[id] = size;
+        siftUp(size++);
+    }
+
+    public void decreaseKey(int id, double key) {
+        if (key > keys[id]) {
+            throw new IllegalArgumentException("New key " + key + " is larger than " + keys[id]);
+        }
+        keys[id] = key;
+        siftUp(position[id]);
+    }
+
+    public int poll() {
+        int top = heap[0];
+        position[top] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    // Gives every queued id the key key(id) and restores the heap order bottom-up in O(n),
+    // for when all keys change at once, e.g. the heuristic weight of an anytime search.
+    public void rekey(IntToDoubleFunction key) {
+        for (int slot = 0; slot < size; slot++) {
+            keys[heap[slot]] = key.applyAsDouble(heap[slot]);
+        }
+        for (int slot = (size >>> 1) - 1; slot >= 0; slot--) {
+            siftDown(slot);
+        }
+    }
+
+    // Only touches the queued ids, so clearing after a small search is cheap on a big heap.
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, position.length * 2);
+        heap = Arrays.copyOf(heap, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        int old = position.length;
+        position = Arrays.copyOf(position, capacity);
+        Arrays.fill(position, old, capacity, -1);
+    }
+
+    private void siftUp(int slot) {
+        int id = heap[slot];
+        double key = keys[id];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            int parentId = heap[parent];
+            if (keys[parentId] <= key) {
+                break;
+            }
+            heap[slot] = parentId;
+            position[parentId] = slot;
+            slot = parent;
+        }
+        heap[slot] = id;
+        position[id] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int id = heap[slot];
+        double key = keys[id];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            int childId = heap[child];
+            if (key <= keys[childId]) {
+                break;
+            }
+            heap[slot] = childId;
+            position[childId] = slot;
+            slot = child;
+        }
+        heap[slot] = id;
+        position[id] = slot;
+    }
+}
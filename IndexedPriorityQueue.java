@@ -0,0 +1,136 @@
+import java.util.*;
+
+// Binary min-heap of objects keyed by a double, for graphs whose vertices are objects rather
+// than int ids. A hash index from item to heap slot gives O(1) contains and O(log n) decreaseKey.
+// Items can carry a second key that breaks ties, for searches such as LPA* that order their
+// queue lexicographically.
+public class IndexedPriorityQueue<T> {
+    private Object[] heap = new Object[16]; // heap slot -> item
+    private double[] keys = new double[16]; // heap slot -> key
+    private double[] ties = new double[16]; // heap slot -> second key
+    private final Map<T, Integer> position = new HashMap<>(); // item -> heap slot
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(T item) {
+        return position.containsKey(item);
+    }
+
+    public double peekKey() {
+        return keys[0];
+    }
+
+    public double peekTie() {
+        return ties[0];
+    }
+
+    public void add(T item, double key) {
+        add(item, key, 0);
+    }
+
+    public void add(T item, double key, double tie) {
+        if (position.containsKey(item)) {
+            throw new IllegalStateException(item + " is already queued");
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+            ties = Arrays.copyOf(ties, size * 2);
+        }
+        siftUp(size++, item, key, tie);
+    }
+
+    public void decreaseKey(T item, double key) {
+        int slot = position.get(item);
+        if (key > keys[slot]) {
+            throw new IllegalArgumentException("New key " + key + " is larger than " + keys[slot]);
+        }
+        siftUp(slot, item, key, ties[slot]);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        T top = (T) heap[0];
+        removeAt(0);
+        return top;
+    }
+
+    public boolean remove(T item) {
+        Integer slot = position.get(item);
+        if (slot == null) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeAt(int slot) {
+        position.remove((T) heap[slot]);
+        if (--size > slot) {
+            T last = (T) heap[size];
+            double key = keys[size];
+            double tie = ties[size];
+            // the moved item may belong above or below the hole, so try both directions
+            siftDown(slot, last, key, tie);
+            if (heap[slot] == last) {
+                siftUp(slot, last, key, tie);
+            }
+        }
+        heap[size] = null;
+    }
+
+    private static boolean less(double key, double tie, double otherKey, double otherTie) {
+        return key < otherKey || (key == otherKey && tie < otherTie);
+    }
+
+    private void siftUp(int slot, T item, double key, double tie) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!less(key, tie, keys[parent], ties[parent])) {
+                break;
+            }
+            move(parent, slot);
+            slot = parent;
+        }
+        place(slot, item, key, tie);
+    }
+
+    private void siftDown(int slot, T item, double key, double tie) {
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && less(keys[child + 1], ties[child + 1], keys[child], ties[child])) {
+                child++;
+            }
+            if (!less(keys[child], ties[child], key, tie)) {
+                break;
+            }
+            move(child, slot);
+            slot = child;
+        }
+        place(slot, item, key, tie);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        keys[to] = keys[from];
+        ties[to] = ties[from];
+        position.put((T) heap[to], to);
+    }
+
+    private void place(int slot, T item, double key, double tie) {
+        heap[slot] = item;
+        keys[slot] = key;
+        ties[slot] = tie;
+        position.put(item, slot);
+    }
+}
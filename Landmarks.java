@@ -0,0 +1,189 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+// ALT heuristic: shortest-path distances to and from K landmark vertices, precomputed once per
+// graph. By the triangle inequality, for every landmark L
+//     d(v, goal) >= d(L, goal) - d(L, v)   and   d(v, goal) >= d(v, L) - d(goal, L),
+// so the largest of these differences is an admissible and consistent estimate.
+public class Landmarks implements Heuristic {
+    private static final int MAGIC = 0x414c5431; // "ALT1"
+
+    final int[] vertices; // landmark vertex ids
+    final int n;
+    final double[] from; // from[v * K + i] = d(landmark i, v)
+    final double[] to; // to[v * K + i] = d(v, landmark i)
+    final long fingerprint; // of the graph the tables were built for
+
+    Landmarks(int[] vertices, int n, double[] from, double[] to, long fingerprint) {
+        this.vertices = vertices;
+        this.n = n;
+        this.from = from;
+        this.to = to;
+        this.fingerprint = fingerprint;
+    }
+
+    public int count() {
+        return vertices.length;
+    }
+
+    // Picks k landmarks by farthest-point selection: each new landmark is the vertex farthest from
+    // the ones chosen so far, which spreads them towards the edges of the graph where they give the
+    // tightest bounds. Selection needs the forward sweeps one after another; the backward sweeps
+    // are independent and run in parallel.
+    public static Landmarks build(CsrGraph graph, int k) {
+        int n = graph.vertexCount();
+        int count = Math.min(k, n);
+        int[] vertices = new int[count];
+        int size = tableSize(n, count);
+        double[] from = new double[size];
+        double[] to = new double[size];
+        double[] nearest = new double[n]; // distance from the closest chosen landmark
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+
+        int next = farthest(graph.context().distancesFrom(0));
+        for (int i = 0; i < count; i++) {
+            vertices[i] = next;
+            double[] distances = graph.context().distancesFrom(next);
+            for (int v = 0; v < n; v++) {
+                from[v * count + i] = distances[v];
+                nearest[v] = Math.min(nearest[v], distances[v]);
+            }
+            next = farthest(nearest);
+        }
+
+        CsrGraph reverse = graph.reverse();
+        IntStream.range(0, count).parallel().forEach(i -> {
+            double[] distances = reverse.context().distancesFrom(vertices[i]);
+            for (int v = 0; v < n; v++) {
+                to[v * count + i] = distances[v];
+            }
+        });
+        return new Landmarks(vertices, n, from, to, fingerprint(graph));
+    }
+
+    // Length of a table of count distances per vertex, refused when it does not fit in an array.
+    static int tableSize(int n, int count) {
+        long size = (long) n * count;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(count + " landmarks for " + n + " vertices need " + size
+                    + " distances per table, more than an array can hold; use fewer landmarks");
+        }
+        return (int) size;
+    }
+
+    // Vertex with the largest finite, non-zero distance, so landmarks already chosen are skipped.
+    private static int farthest(double[] distances) {
+        int best = 0;
+        double bestDistance = 0;
+        for (int v = 0; v < distances.length; v++) {
+            double d = distances[v];
+            if (d > bestDistance && d != Double.POSITIVE_INFINITY) {
+                best = v;
+                bestDistance = d;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public double estimate(int v, int goal) {
+        return bound(v, goal);
+    }
+
+    @Override
+    public double estimateFrom(int start, int v) {
+        return bound(start, v);
+    }
+
+    // Lower bound on d(a, b). Landmarks that cannot reach (or be reached from) both vertices say
+    // nothing about them and are skipped.
+    private double bound(int a, int b) {
+        int k = vertices.length;
+        int ai = a * k;
+        int bi = b * k;
+        double best = 0;
+        for (int i = 0; i < k; i++) {
+            double fa = from[ai + i];
+            double fb = from[bi + i];
+            if (fa != Double.POSITIVE_INFINITY && fb != Double.POSITIVE_INFINITY) {
+                best = Math.max(best, fb - fa);
+            }
+            double ta = to[ai + i];
+            double tb = to[bi + i];
+            if (ta != Double.POSITIVE_INFINITY && tb != Double.POSITIVE_INFINITY) {
+                best = Math.max(best, ta - tb);
+            }
+        }
+        return best;
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeLong(fingerprint);
+            out.writeInt(n);
+            out.writeInt(vertices.length);
+            for (int v : vertices) {
+                out.writeInt(v);
+            }
+            for (double d : from) {
+                out.writeDouble(d);
+            }
+            for (double d : to) {
+                out.writeDouble(d);
+            }
+        }
+    }
+
+    // Loads tables written by save, refusing them if they were built for a different graph.
+    public static Landmarks load(Path file, CsrGraph graph) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a landmark file");
+            }
+            long fingerprint = in.readLong();
+            int n = in.readInt();
+            if (fingerprint != fingerprint(graph) || n != graph.vertexCount()) {
+                throw new IOException(file + " was built for a different graph version");
+            }
+            int count = in.readInt();
+            if (count < 0 || count > n) {
+                throw new IOException(file + " has an invalid landmark count " + count);
+            }
+            int size;
+            try {
+                size = tableSize(n, count);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(file + ": " + e.getMessage(), e);
+            }
+            int[] vertices = new int[count];
+            for (int i = 0; i < vertices.length; i++) {
+                vertices[i] = in.readInt();
+            }
+            double[] from = new double[size];
+            double[] to = new double[size];
+            for (int i = 0; i < from.length; i++) {
+                from[i] = in.readDouble();
+            }
+            for (int i = 0; i < to.length; i++) {
+                to[i] = in.readDouble();
+            }
+            return new Landmarks(vertices, n, from, to, fingerprint);
+        }
+    }
+
+    // Hash of the graph structure and edge costs, so tables are never used with a changed graph.
+    static long fingerprint(CsrGraph graph) {
+        long hash = 1125899906842597L;
+        for (int v = 0; v <= graph.vertexCount(); v++) {
+            hash = 31 * hash + graph.edgesBegin(v);
+        }
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            hash = 31 * hash + graph.target(e);
+            hash = 31 * hash + Double.doubleToLongBits(graph.cost(e));
+        }
+        return hash;
+    }
+}
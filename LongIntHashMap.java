@@ -0,0 +1,102 @@
+import java.util.*;
+
+// Open-addressing hash map from long keys to non-negative int values, for search bookkeeping
+// over millions of packed states where a HashMap<Long, Integer> would box two objects per entry.
+// Keys and values sit in two flat arrays probed linearly, kept at most half full.
+public class LongIntHashMap {
+    public static final int MISSING = -1; // what get returns for an absent key
+
+    private static final long FREE = 0; // marks an empty slot; the real key 0 is kept aside
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(long key) {
+        if (key == FREE) {
+            return hasFreeKey ? freeKeyValue : MISSING;
+        }
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            long k = keys[slot];
+            if (k == key) {
+                return values[slot];
+            }
+            if (k == FREE) {
+                return MISSING;
+            }
+        }
+    }
+
+    public void put(long key, int value) {
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeKeyValue = value;
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        values[slot] = value;
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // Murmur3 finalizer; packed puzzle states differ in a few nibbles, so the bits need mixing.
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,441 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Monte Carlo tree search player for N x N boards where k stones in a row win, e.g. 15 x 15 with
+// k = 5, where the exhaustive minimax of TicTacToe and the alpha-beta of BitboardEngine cannot
+// finish. Each side's stones are a bitboard of (N * N + 63) / 64 longs, so boards of any size fit.
+//
+// Search:
+//  - Selection follows UCT from the root. A node is expanded once it has EXPAND_VISITS visits, into
+//    one child per empty cell within RADIUS of a stone, which keeps the branching factor down on a
+//    big board without ruling out any sensible move.
+//  - From the leaf a playout places stones at random until someone wins or the board is full. A
+//    playout works on per-thread scratch arrays and allocates nothing.
+//  - Every thread searches the same tree. A thread going down a node adds VIRTUAL_LOSS visits
+//    without any reward, so the node looks worse to the others until the playout result replaces
+//    them; that keeps threads off each other's paths without any locks on the way down. Only
+//    expansion takes the node's lock.
+//  - play() moves the root to the child for the move played, so the subtree searched on earlier
+//    moves is kept for the next one.
+//
+// Rewards are in half-points for the side that made the move into a node: 2 for a win, 1 for a
+// draw. A player is driven from one thread. bestMove searches on that thread plus threads - 1
+// daemon threads the player keeps for its whole life; close() stops them.
+public class MctsPlayer implements AutoCloseable {
+    private static final double EXPLORATION = 1.4; // UCT constant, about sqrt(2)
+    private static final int VIRTUAL_LOSS = 3;
+    private static final int EXPAND_VISITS = 8;
+    private static final int RADIUS = 2; // candidate moves are empty cells this close to a stone
+    private static final int CHUNK = 16; // playouts claimed at a time, and between clock checks
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    private static final long MAX_BUDGET = Long.MAX_VALUE / 2; // longer budgets would wrap the deadline
+
+    private final int n;
+    private final int k;
+    private final int cells;
+    private final int threads;
+    private final long[][] stones; // side -> bitboard, side 0 moves first
+    private final ExecutorService helpers; // threads - 1 search threads, null for a single thread
+    private int toMove;
+    private int filled; // stones on the board
+    private int winner; // side that completed a line, -1 while nobody has
+    private Node root;
+    private long playouts; // by the last bestMove
+    private long nanos; // spent by the last bestMove
+
+    public MctsPlayer(int n, int k, int threads) {
+        if (n < 1 || k < 1 || k > n || threads < 1) {
+            throw new IllegalArgumentException("Need 1 <= k <= n and threads >= 1, got n = " + n + ", k = " + k
+                    + ", threads = " + threads);
+        }
+        this.n = n;
+        this.k = k;
+        this.cells = n * n;
+        this.threads = threads;
+        this.stones = new long[2][(cells + 63) / 64];
+        AtomicInteger helperCount = new AtomicInteger();
+        this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, task -> {
+            Thread thread = new Thread(task, "mcts-" + helperCount.incrementAndGet());
+            thread.setDaemon(true); // a player that is never closed does not keep the JVM alive
+            return thread;
+        });
+        reset();
+    }
+
+    // Stops the search threads; the player cannot search after this.
+    @Override
+    public void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    // Empty board, side 0 to move, and a fresh tree.
+    public void reset() {
+        Arrays.fill(stones[0], 0);
+        Arrays.fill(stones[1], 0);
+        toMove = 0;
+        filled = 0;
+        winner = -1;
+        root = new Node(-1, Node.ONGOING);
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public int toMove() {
+        return toMove;
+    }
+
+    // Side whose stone is on cell, or -1 if it is empty.
+    public int stone(int cell) {
+        return isSet(stones[0], cell) ? 0 : isSet(stones[1], cell) ? 1 : -1;
+    }
+
+    // Side that won, or -1 if nobody has (yet).
+    public int winner() {
+        return winner;
+    }
+
+    public boolean isOver() {
+        return winner >= 0 || filled == cells;
+    }
+
+    // Playouts and playouts per second of the last bestMove.
+    public long playouts() {
+        return playouts;
+    }
+
+    public double playoutsPerSecond() {
+        return nanos == 0 ? 0 : playouts * 1e9 / nanos;
+    }
+
+    // Places a stone for the side to move. If the tree already has this move, its subtree becomes
+    // the new root.
+    public void play(int cell) {
+        if (isOver() || cell < 0 || cell >= cells || stone(cell) >= 0) {
+            throw new IllegalArgumentException("Cell " + cell + " cannot be played");
+        }
+        Node next = null;
+        Node[] children = root.children;
+        if (children != null) {
+            for (Node child : children) {
+                if (child.move == cell) {
+                    next = child;
+                    break;
+                }
+            }
+        }
+        set(stones[toMove], cell);
+        filled++;
+        if (wins(stones[toMove], cell)) {
+            winner = toMove;
+        }
+        toMove ^= 1;
+        root = next != null ? next : new Node(-1, Node.ONGOING);
+    }
+
+    // Best cell for the side to move after searching until budgetNanos or maxPlayouts runs out
+    // (Long.MAX_VALUE turns a limit off), or -1 if the game is over. The most visited root move
+    // wins, except that a move completing a line is played at once. If the calling thread is
+    // interrupted, every search thread stops after its current chunk of playouts.
+    public int bestMove(long budgetNanos, long maxPlayouts) throws InterruptedException {
+        if (isOver()) {
+            return -1;
+        }
+        long began = System.nanoTime();
+        Worker first = new Worker(began);
+        first.expand(root);
+        for (Node child : root.children) {
+            if (child.outcome == Node.WIN) {
+                playouts = 0;
+                nanos = System.nanoTime() - began;
+                return child.move;
+            }
+        }
+
+        // compared as System.nanoTime() - deadline < 0, which stays right when the sum wraps
+        long deadline = began + Math.min(Math.max(0, budgetNanos), MAX_BUDGET);
+        AtomicLong claimed = new AtomicLong();
+        AtomicBoolean stop = new AtomicBoolean();
+        Worker[] workers = new Worker[threads];
+        List<Future<?>> running = new ArrayList<>();
+        workers[0] = first;
+        for (int i = 1; i < threads; i++) {
+            Worker worker = workers[i] = new Worker(began + i);
+            running.add(helpers.submit(() -> worker.search(claimed, maxPlayouts, deadline, stop)));
+        }
+        first.search(claimed, maxPlayouts, deadline, stop);
+        boolean interrupted = Thread.interrupted();
+        if (interrupted) {
+            stop.set(true);
+        }
+        // wait for every helper even when interrupted, so none of them is still reading the board
+        // or the tree when the caller plays the next move
+        Throwable failure = null;
+        for (Future<?> future : running) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    stop.set(true);
+                } catch (ExecutionException e) {
+                    failure = e.getCause();
+                    stop.set(true);
+                    break;
+                }
+            }
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Search thread failed", failure);
+        }
+        if (interrupted) {
+            throw new InterruptedException("Search interrupted");
+        }
+        playouts = 0;
+        for (Worker worker : workers) {
+            playouts += worker.playouts;
+        }
+        nanos = System.nanoTime() - began;
+
+        Node best = null;
+        for (Node child : root.children) {
+            if (best == null || child.visits > best.visits) {
+                best = child;
+            }
+        }
+        return best.move;
+    }
+
+    // Whether stones hold k in a row through cell.
+    boolean wins(long[] stones, int cell) {
+        int row = cell / n;
+        int col = cell % n;
+        for (int[] d : DIRECTIONS) {
+            int count = 1;
+            for (int r = row + d[0], c = col + d[1]; r < n && c >= 0 && c < n && isSet(stones, r * n + c);
+                    r += d[0], c += d[1]) {
+                count++;
+            }
+            for (int r = row - d[0], c = col - d[1]; r >= 0 && c >= 0 && c < n && isSet(stones, r * n + c);
+                    r -= d[0], c -= d[1]) {
+                count++;
+            }
+            if (count >= k) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSet(long[] bits, int cell) {
+        return (bits[cell >>> 6] >>> cell & 1) != 0;
+    }
+
+    private static void set(long[] bits, int cell) {
+        bits[cell >>> 6] |= 1L << cell;
+    }
+
+    private static final class Node {
+        static final byte ONGOING = 0;
+        static final byte WIN = 1; // the move into the node completed a line
+        static final byte DRAW = 2; // the move into the node filled the board
+        static final AtomicIntegerFieldUpdater<Node> VISITS = AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        static final AtomicLongFieldUpdater<Node> REWARD = AtomicLongFieldUpdater.newUpdater(Node.class, "reward");
+
+        final int move; // cell played to reach the node, -1 for a root
+        final byte outcome;
+        volatile int visits; // including virtual losses of playouts in flight
+        volatile long reward; // half-points for the side that played move
+        volatile Node[] children; // null until expanded
+
+        Node(int move, byte outcome) {
+            this.move = move;
+            this.outcome = outcome;
+        }
+    }
+
+    // One search thread with its own scratch board, empty-cell list and random state.
+    private final class Worker {
+        final long[][] board = new long[2][stones[0].length];
+        final int[] empty = new int[cells];
+        final Node[] path = new Node[cells + 1];
+        long random;
+        long playouts;
+
+        Worker(long seed) {
+            random = seed * 0x9E3779B97F4A7C15L | 1;
+        }
+
+        void search(AtomicLong claimed, long maxPlayouts, long deadline, AtomicBoolean stop) {
+            Thread current = Thread.currentThread();
+            while (System.nanoTime() - deadline < 0 && !stop.get() && !current.isInterrupted()) {
+                long from = claimed.getAndAdd(CHUNK);
+                if (from >= maxPlayouts) {
+                    return;
+                }
+                for (long i = from, end = Math.min(maxPlayouts, from + CHUNK); i < end; i++) {
+                    iterate();
+                }
+            }
+        }
+
+        // One selection, expansion, playout and backup.
+        void iterate() {
+            System.arraycopy(stones[0], 0, board[0], 0, board[0].length);
+            System.arraycopy(stones[1], 0, board[1], 0, board[1].length);
+            int side = toMove;
+            int onBoard = filled;
+            Node node = root;
+            Node.VISITS.addAndGet(node, VIRTUAL_LOSS);
+            path[0] = node;
+            int depth = 1;
+            while (node.outcome == Node.ONGOING) {
+                if (node.children == null) {
+                    if (node.visits < EXPAND_VISITS) {
+                        break;
+                    }
+                    expand(node, side, onBoard);
+                }
+                node = select(node);
+                Node.VISITS.addAndGet(node, VIRTUAL_LOSS);
+                path[depth++] = node;
+                set(board[side], node.move);
+                onBoard++;
+                side ^= 1;
+            }
+
+            int won; // side that won, -1 for a draw
+            if (node.outcome == Node.WIN) {
+                won = side ^ 1;
+            } else if (node.outcome == Node.DRAW) {
+                won = -1;
+            } else {
+                won = playout(side, onBoard);
+            }
+            playouts++;
+
+            int mover = toMove ^ 1; // side that moved into path[0]
+            for (int i = 0; i < depth; i++, mover ^= 1) {
+                Node.VISITS.addAndGet(path[i], 1 - VIRTUAL_LOSS);
+                Node.REWARD.addAndGet(path[i], won == mover ? 2 : won < 0 ? 1 : 0);
+            }
+        }
+
+        // Child with the highest UCT score; unvisited children come first.
+        Node select(Node node) {
+            double logVisits = Math.log(Math.max(1, node.visits));
+            Node best = null;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (Node child : node.children) {
+                int visits = child.visits;
+                if (visits == 0) {
+                    return child;
+                }
+                double score = child.reward / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        void expand(Node node) {
+            System.arraycopy(stones[0], 0, board[0], 0, board[0].length);
+            System.arraycopy(stones[1], 0, board[1], 0, board[1].length);
+            expand(node, toMove, filled);
+        }
+
+        // Gives node one child per candidate move on the scratch board, unless another thread
+        // got there first.
+        void expand(Node node, int side, int onBoard) {
+            synchronized (node) {
+                if (node.children != null) {
+                    return;
+                }
+                List<Node> children = new ArrayList<>();
+                for (int cell = 0; cell < cells; cell++) {
+                    if (isSet(board[0], cell) || isSet(board[1], cell) || !nearStone(cell, onBoard)) {
+                        continue;
+                    }
+                    set(board[side], cell);
+                    byte outcome = wins(board[side], cell) ? Node.WIN : onBoard + 1 == cells ? Node.DRAW : Node.ONGOING;
+                    board[side][cell >>> 6] &= ~(1L << cell);
+                    children.add(new Node(cell, outcome));
+                }
+                node.children = children.toArray(new Node[0]);
+            }
+        }
+
+        // Whether a stone lies within RADIUS of cell; on an empty board only the centre qualifies.
+        boolean nearStone(int cell, int onBoard) {
+            int row = cell / n;
+            int col = cell % n;
+            if (onBoard == 0) {
+                return row == n / 2 && col == n / 2;
+            }
+            for (int r = Math.max(0, row - RADIUS); r <= Math.min(n - 1, row + RADIUS); r++) {
+                for (int c = Math.max(0, col - RADIUS); c <= Math.min(n - 1, col + RADIUS); c++) {
+                    if (isSet(board[0], r * n + c) || isSet(board[1], r * n + c)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // Random stones from side onwards until a line is complete; the winning side or -1 for a draw.
+        int playout(int side, int onBoard) {
+            int count = 0;
+            for (int cell = 0; cell < cells; cell++) {
+                if (!isSet(board[0], cell) && !isSet(board[1], cell)) {
+                    empty[count++] = cell;
+                }
+            }
+            while (count > 0) {
+                random ^= random << 13; // xorshift64
+                random ^= random >>> 7;
+                random ^= random << 17;
+                int i = (int) ((random >>> 32) * count >>> 32);
+                int cell = empty[i];
+                empty[i] = empty[--count];
+                set(board[side], cell);
+                if (wins(board[side], cell)) {
+                    return side;
+                }
+                side ^= 1;
+            }
+            return -1;
+        }
+    }
+
+    // Self-play on an n x n board with k in a row, thinking millis per move:
+    // java MctsPlayer [n] [k] [threads] [millis]
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 15;
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long millis = args.length > 3 ? Long.parseLong(args[3]) : 500;
+        MctsPlayer player = new MctsPlayer(n, k, threads);
+        try (player) {
+            while (!player.isOver()) {
+                int cell = player.bestMove(millis * 1_000_000, Long.MAX_VALUE);
+                System.out.printf("%c plays (%d, %d) after %d playouts, %.0f playouts/s%n", player.toMove() == 0 ? 'x' : 'o',
+                        cell / n, cell % n, player.playouts(), player.playoutsPerSecond());
+                player.play(cell);
+            }
+        }
+        StringBuilder board = new StringBuilder();
+        for (int cell = 0; cell < n * n; cell++) {
+            int side = player.stone(cell);
+            board.append(side == 0 ? 'x' : side == 1 ? 'o' : '.').append(cell % n == n - 1 ? "\n" : " ");
+        }
+        System.out.print(board);
+        System.out.println(player.winner() < 0 ? "Draw" : (player.winner() == 0 ? 'x' : 'o') + " wins");
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+// Bounded LRU cache of search results keyed by (start, goal). Staleness is tracked with graph
+// version numbers: every entry remembers the version of its start node's graph when it was
+// computed, and it is only returned while that version is unchanged, so an answer computed
+// before an edge of that graph was added or re-costed is never returned. Edits to other graphs
+// leave the entry alone. A stale entry is dropped by its next lookup, or falls out as least
+// recently used.
+//
+// The entries are split over independently locked segments by key hash, so cached queries from
+// many threads rarely wait on each other. Each segment evicts its own least recently used entry,
+// which makes the order across the whole cache approximate LRU.
+public class PathCache<N, P> {
+    private final ToLongFunction<N> version; // node -> version of the graph it belongs to
+    private final Segment<N, P>[] segments;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public PathCache(int maxEntries, ToLongFunction<N> version) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive but was " + maxEntries);
+        }
+        this.version = version;
+        // the power of two at or above 4 per core, but never more segments than entries
+        int perCore = Integer.highestOneBit(4 * Runtime.getRuntime().availableProcessors() - 1) << 1;
+        int count = Math.min(perCore, Integer.highestOneBit(maxEntries));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(maxEntries / count + (i < maxEntries % count ? 1 : 0));
+        }
+        this.mask = count - 1;
+    }
+
+    // Returns the cached result for (start, goal), or runs search and caches what it returns.
+    // The search runs outside the lock; its result is only stored if the graph did not change
+    // while it ran.
+    public P get(N start, N goal, BiFunction<N, N, P> search) {
+        Map.Entry<N, N> key = Map.entry(start, goal);
+        Segment<N, P> segment = segmentFor(start, goal);
+        long before = version.applyAsLong(start);
+        synchronized (segment) {
+            Versioned<P> cached = segment.get(key);
+            if (cached != null) {
+                if (cached.version == before) {
+                    hits.increment();
+                    return cached.result;
+                }
+                segment.remove(key);
+            }
+        }
+        misses.increment();
+        P result = search.apply(start, goal);
+        if (version.applyAsLong(start) == before) {
+            synchronized (segment) {
+                segment.put(key, new Versioned<>(before, result));
+            }
+        }
+        return result;
+    }
+
+    // Not the key's own hash, which is start ^ goal and puts every (v, v) and both directions of
+    // a pair in the same segment.
+    private Segment<N, P> segmentFor(N start, N goal) {
+        int hash = (31 * start.hashCode() + goal.hashCode()) * 0x9E3779B9;
+        return segments[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    public void invalidateAll() {
+        for (Segment<N, P> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    // Entries held, including stale ones not looked up since their graph changed.
+    public int size() {
+        int size = 0;
+        for (Segment<N, P> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    // Access-ordered, so iteration starts at the segment's least recently used entry.
+    private static final class Segment<N, P> extends LinkedHashMap<Map.Entry<N, N>, Versioned<P>> {
+        private final int maxEntries;
+
+        Segment(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Map.Entry<N, N>, Versioned<P>> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
+    private static final class Versioned<P> {
+        final long version;
+        final P result;
+
+        Versioned(long version, P result) {
+            this.version = version;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,353 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Additive disjoint pattern databases for N x N sliding puzzles. The tiles are split into groups,
+// and for every placement of a group's tiles the table holds the fewest moves of those tiles
+// that bring them home, counting moves of other tiles as free. No move is counted by two
+// groups, so the per-group values add up to an admissible heuristic that is much stronger than
+// Manhattan distance.
+//
+// A table is built once by a backward breadth-first search from the goal over (placement, blank)
+// states: the blank moving over a cell outside the group costs 0, swapping with a group tile
+// costs 1. A placement of k tiles on C cells is stored at its rank in C * (C - 1) * ... * (C - k + 1),
+// one byte per placement.
+//
+// File layout, little-endian: magic "PDB1", version, n, group count, then per group its tile
+// count and tiles, then the tables back to back. map() reads the header and maps each table,
+// so a solver starts with an mmap and pays a few byte reads per node.
+public class PatternDatabase {
+    static final int MAGIC = 0x31424450; // "PDB1"
+    static final int VERSION = 1;
+
+    final int n;
+    final int[][] groups; // group -> its tiles
+    final ByteBuffer[] tables; // group -> moves for each placement rank
+    private final int[] groupOf; // tile -> its group, -1 for the blank
+    private final int[] slotOf; // tile -> its index within its group
+
+    PatternDatabase(int n, int[][] groups, ByteBuffer[] tables) {
+        this.n = n;
+        this.groups = groups;
+        this.tables = tables;
+        groupOf = new int[n * n];
+        slotOf = new int[n * n];
+        Arrays.fill(groupOf, -1);
+        for (int g = 0; g < groups.length; g++) {
+            for (int i = 0; i < groups[g].length; i++) {
+                int tile = groups[g][i];
+                if (tile <= 0 || tile >= n * n || groupOf[tile] >= 0) {
+                    throw new IllegalArgumentException("Tile " + tile + " is out of range or in two groups");
+                }
+                groupOf[tile] = g;
+                slotOf[tile] = i;
+            }
+        }
+        for (int tile = 1; tile < n * n; tile++) {
+            if (groupOf[tile] < 0) {
+                throw new IllegalArgumentException("Tile " + tile + " is in no group");
+            }
+        }
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public int groupCount() {
+        return groups.length;
+    }
+
+    int group(int tile) {
+        return groupOf[tile];
+    }
+
+    int slot(int tile) {
+        return slotOf[tile];
+    }
+
+    // Moves the tiles of group g need, given the cell of each of them in group order.
+    int value(int g, int[] cells) {
+        return tables[g].get(rank(cells, cells.length, n * n)) & 0xFF;
+    }
+
+    // The sum over all groups for a board given as cell -> tile.
+    public int estimate(int[] board) {
+        int[][] cells = new int[groups.length][];
+        for (int g = 0; g < groups.length; g++) {
+            cells[g] = new int[groups[g].length];
+        }
+        for (int cell = 0; cell < board.length; cell++) {
+            if (board[cell] != 0) {
+                cells[groupOf[board[cell]]][slotOf[board[cell]]] = cell;
+            }
+        }
+        int sum = 0;
+        for (int g = 0; g < groups.length; g++) {
+            sum += value(g, cells[g]);
+        }
+        return sum;
+    }
+
+    // Groups that give a good split for the usual sizes: for 4x4 the 6-6-3 split into the left
+    // block, the lower right block and the rest of the top row; otherwise runs of five tiles.
+    static int[][] defaultGroups(int n) {
+        if (n == 4) {
+            return new int[][] {{1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4}};
+        }
+        int tiles = n * n - 1;
+        int[][] groups = new int[(tiles + 4) / 5][];
+        for (int g = 0; g < groups.length; g++) {
+            groups[g] = new int[Math.min(5, tiles - 5 * g)];
+            for (int i = 0; i < groups[g].length; i++) {
+                groups[g][i] = 5 * g + i + 1;
+            }
+        }
+        return groups;
+    }
+
+    public static PatternDatabase build(int n, int[][] groups) {
+        ByteBuffer[] tables = new ByteBuffer[groups.length];
+        for (int g = 0; g < groups.length; g++) {
+            tables[g] = ByteBuffer.wrap(buildTable(n, groups[g]));
+        }
+        return new PatternDatabase(n, groups, tables);
+    }
+
+    // Layered 0-1 breadth-first search from the goal. A state is rank * C + blank cell. Within a
+    // layer, free blank moves append to the layer being scanned; moves of a group tile go to the
+    // next layer, which may hold duplicates because a state is only marked when it is scanned.
+    static byte[] buildTable(int n, int[] tiles) {
+        int cells = n * n;
+        int k = tiles.length;
+        long placements = placements(cells, k);
+        if (cells > 64 || placements * cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A group of " + k + " tiles is too large for a " + n + "x" + n + " puzzle");
+        }
+        byte[] table = new byte[(int) placements];
+        Arrays.fill(table, (byte) -1);
+        long[] visited = new long[(int) ((placements * cells + 63) >>> 6)];
+        int[][] neighbors = new int[cells][];
+        for (int cell = 0; cell < cells; cell++) {
+            int[] around = new int[4];
+            int count = 0;
+            for (int[] move : Asearch.moves) {
+                int x = cell / n + move[0];
+                int y = cell % n + move[1];
+                if (x >= 0 && x < n && y >= 0 && y < n) {
+                    around[count++] = x * n + y;
+                }
+            }
+            neighbors[cell] = Arrays.copyOf(around, count);
+        }
+
+        int[] pos = new int[k]; // cell of each group tile in the state being scanned
+        int[] owner = new int[cells]; // cell -> index of the group tile on it, -1 if none
+        for (int i = 0; i < k; i++) {
+            pos[i] = tiles[i] - 1; // goal cell of tile t is t - 1
+        }
+        int[] layer = new int[1024];
+        int[] next = new int[1024];
+        int nextSize = 0;
+        next[nextSize++] = rank(pos, k, cells) * cells + (cells - 1); // the goal, blank in the last cell
+        for (int distance = 0; nextSize > 0; distance++) {
+            if (distance > 254) {
+                throw new IllegalStateException("Distances do not fit in a byte");
+            }
+            int[] swap = layer;
+            layer = next;
+            next = swap;
+            int layerSize = nextSize;
+            nextSize = 0;
+            for (int i = 0; i < layerSize; i++) {
+                int state = layer[i];
+                if (isVisited(visited, state)) {
+                    layer[i] = -1; // reached by a free move earlier in this layer, or twice from the last one
+                } else {
+                    setVisited(visited, state);
+                }
+            }
+            for (int i = 0; i < layerSize; i++) {
+                int state = layer[i];
+                if (state < 0) {
+                    continue;
+                }
+                int rank = state / cells;
+                int blank = state % cells;
+                if (table[rank] == -1) {
+                    table[rank] = (byte) distance;
+                }
+                unrank(rank, k, cells, pos);
+                Arrays.fill(owner, -1);
+                for (int j = 0; j < k; j++) {
+                    owner[pos[j]] = j;
+                }
+                for (int cell : neighbors[blank]) {
+                    int j = owner[cell];
+                    if (j < 0) { // free move of the blank inside this layer
+                        int neighbor = rank * cells + cell;
+                        if (!isVisited(visited, neighbor)) {
+                            setVisited(visited, neighbor);
+                            if (layerSize == layer.length) {
+                                layer = Arrays.copyOf(layer, layerSize * 2);
+                            }
+                            layer[layerSize++] = neighbor;
+                        }
+                    } else { // group tile j slides into the blank: one move, next layer
+                        pos[j] = blank;
+                        int neighbor = rank(pos, k, cells) * cells + cell;
+                        pos[j] = cell;
+                        if (!isVisited(visited, neighbor)) {
+                            if (nextSize == next.length) {
+                                next = Arrays.copyOf(next, nextSize * 2);
+                            }
+                            next[nextSize++] = neighbor;
+                        }
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    private static boolean isVisited(long[] visited, int state) {
+        return (visited[state >>> 6] & 1L << state) != 0;
+    }
+
+    private static void setVisited(long[] visited, int state) {
+        visited[state >>> 6] |= 1L << state;
+    }
+
+    // C * (C - 1) * ... * (C - k + 1): the number of ways to place k distinct tiles on C cells.
+    static long placements(int cells, int k) {
+        long count = 1;
+        for (int i = 0; i < k; i++) {
+            count *= cells - i;
+        }
+        return count;
+    }
+
+    // Mixed-radix rank of a placement: tile i contributes the index of its cell among the cells
+    // not taken by tiles 0 .. i - 1. Taken cells are kept as a bit mask, so boards are limited
+    // to 64 cells, far beyond what a table can cover anyway.
+    static int rank(int[] pos, int k, int cells) {
+        int rank = 0;
+        long taken = 0;
+        for (int i = 0; i < k; i++) {
+            int free = pos[i] - Long.bitCount(taken & ((1L << pos[i]) - 1));
+            rank = rank * (cells - i) + free;
+            taken |= 1L << pos[i];
+        }
+        return rank;
+    }
+
+    static void unrank(int rank, int k, int cells, int[] pos) {
+        for (int i = k - 1; i >= 0; i--) { // digits come out last first
+            pos[i] = rank % (cells - i);
+            rank /= cells - i;
+        }
+        long taken = 0;
+        for (int i = 0; i < k; i++) { // turn "index among the free cells" back into a cell
+            long free = ~taken;
+            for (int skip = pos[i]; skip > 0; skip--) {
+                free &= free - 1; // drop the lowest free cell
+            }
+            pos[i] = Long.numberOfTrailingZeros(free);
+            taken |= 1L << pos[i];
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        int headerBytes = 16;
+        for (int[] group : groups) {
+            headerBytes += 4 + 4 * group.length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(groups.length);
+        for (int[] group : groups) {
+            header.putInt(group.length);
+            for (int tile : group) {
+                header.putInt(tile);
+            }
+        }
+        header.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            for (ByteBuffer table : tables) {
+                ByteBuffer data = table.duplicate();
+                data.clear();
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+        }
+    }
+
+    public static PatternDatabase map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer fixed = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, fixed, 0);
+            if (fixed.getInt(0) != MAGIC || fixed.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a version " + VERSION + " pattern database");
+            }
+            int n = fixed.getInt(8);
+            int[][] groups = new int[fixed.getInt(12)][];
+            long position = 16;
+            for (int g = 0; g < groups.length; g++) {
+                ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, count, position);
+                ByteBuffer tiles = ByteBuffer.allocate(4 * count.getInt(0)).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, tiles, position + 4);
+                groups[g] = new int[count.getInt(0)];
+                for (int i = 0; i < groups[g].length; i++) {
+                    groups[g][i] = tiles.getInt(4 * i);
+                }
+                position += 4 + tiles.capacity();
+            }
+            ByteBuffer[] tables = new ByteBuffer[groups.length];
+            for (int g = 0; g < groups.length; g++) {
+                long size = placements(n * n, groups[g].length);
+                if (position + size > channel.size()) {
+                    throw new IOException(file + " is truncated");
+                }
+                tables[g] = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+                position += size;
+            }
+            return new PatternDatabase(n, groups, tables);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Pattern database header is truncated");
+            }
+        }
+    }
+
+    // Offline build: PatternDatabase <n> <file> [tiles,of,group1 tiles,of,group2 ...]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: PatternDatabase <n> <file> [comma-separated tile groups...]");
+            System.exit(2);
+        }
+        int n = Integer.parseInt(args[0]);
+        int[][] groups = defaultGroups(n);
+        if (args.length > 2) {
+            groups = new int[args.length - 2][];
+            for (int g = 0; g < groups.length; g++) {
+                groups[g] = Arrays.stream(args[g + 2].split(",")).mapToInt(Integer::parseInt).toArray();
+            }
+        }
+        long began = System.nanoTime();
+        PatternDatabase database = build(n, groups);
+        database.write(Paths.get(args[1]));
+        System.out.println("Built " + groups.length + " tables for " + n + "x" + n + " in "
+                + (System.nanoTime() - began) / 1_000_000 + " ms");
+    }
+}
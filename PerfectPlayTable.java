@@ -0,0 +1,233 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.*;
+
+// Perfect play for 3x3 TicTacToe as a table: every position reachable with 'x' moving first is
+// solved once, offline, and its best move and value are stored at the position's index, so a
+// move during the game is a single byte read.
+//
+// A position's index is the base-3 number with digit 1 for 'x' and 2 for 'o' at cell
+// row * 3 + column, the digit for cell i weighing 3^i, so the table has 3^9 = 19683 entries.
+// An entry is one byte: bit 7 set if the position is reachable, bits 4-5 the value for the side
+// to move (LOSS, DRAW, WIN), bits 0-3 the best cell or NO_MOVE once the game is over. Of equally
+// good moves the table keeps the one that wins soonest or loses latest, then the lowest cell.
+//
+// File layout, little-endian: magic "TTT1", version, entry count, reachable count, then the
+// entries. map() maps the file, so a player starts with an mmap instead of a search.
+public class PerfectPlayTable {
+    static final int MAGIC = 0x31545454; // "TTT1"
+    static final int VERSION = 1;
+    static final int ENTRIES = 19683;
+    static final int HEADER_BYTES = 16;
+    static final int LOSS = 0;
+    static final int DRAW = 1;
+    static final int WIN = 2;
+    static final int NO_MOVE = 15;
+    private static final int REACHABLE = 0x80;
+    private static final int[] POWERS = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+    private static final int[][] LINES = {{0, 1, 2}, {3, 4, 5}, {6, 7, 8}, {0, 3, 6}, {1, 4, 7}, {2, 5, 8},
+            {0, 4, 8}, {2, 4, 6}};
+
+    private final ByteBuffer entries; // position index -> entry, at HEADER_BYTES + index
+    private final int reachable;
+
+    PerfectPlayTable(ByteBuffer entries, int reachable) {
+        this.entries = entries;
+        this.reachable = reachable;
+    }
+
+    // Number of positions reachable from the empty board, finished ones included.
+    public int reachable() {
+        return reachable;
+    }
+
+    public static int index(char[][] board) {
+        int index = 0;
+        for (int cell = 0; cell < 9; cell++) {
+            char mark = board[cell / 3][cell % 3];
+            index += mark == 'x' ? POWERS[cell] : mark == 'o' ? 2 * POWERS[cell] : 0;
+        }
+        return index;
+    }
+
+    // Index of the position with 'x' on the cells set in xs and 'o' on those set in os.
+    public static int index(long xs, long os) {
+        int index = 0;
+        for (int cell = 0; cell < 9; cell++) {
+            index += ((int) (xs >>> cell & 1) + 2 * (int) (os >>> cell & 1)) * POWERS[cell];
+        }
+        return index;
+    }
+
+    public boolean isReachable(int index) {
+        return (entry(index) & REACHABLE) != 0;
+    }
+
+    // Best cell for the side to move, or -1 if the game is over or the position is unreachable.
+    public int bestMove(int index) {
+        int move = entry(index) & 0xF;
+        return isReachable(index) && move != NO_MOVE ? move : -1;
+    }
+
+    // LOSS, DRAW or WIN for the side to move, with perfect play from both sides.
+    public int value(int index) {
+        if (!isReachable(index)) {
+            throw new IllegalArgumentException("Position " + index + " cannot be reached from the empty board");
+        }
+        return entry(index) >>> 4 & 3;
+    }
+
+    public int bestMove(char[][] board) {
+        return bestMove(index(board));
+    }
+
+    private int entry(int index) {
+        return entries.get(HEADER_BYTES + index) & 0xFF;
+    }
+
+    // Offline solve: a depth-first walk from the empty board scores each reachable position once
+    // with negamax, memoized by index. A score is 1 + the empty cells left at the end for a win,
+    // its negative for a loss, 0 for a draw, so sooner wins score higher.
+    public static PerfectPlayTable build() {
+        int[] score = new int[ENTRIES];
+        byte[] table = new byte[ENTRIES];
+        int[] cells = new int[9]; // 0 empty, 1 'x', 2 'o'
+        int reachable = solve(cells, 0, 1, score, table);
+        ByteBuffer entries = ByteBuffer.allocate(HEADER_BYTES + ENTRIES).order(ByteOrder.LITTLE_ENDIAN);
+        entries.putInt(MAGIC).putInt(VERSION).putInt(ENTRIES).putInt(reachable).put(table);
+        return new PerfectPlayTable(entries, reachable);
+    }
+
+    // Solves the position in cells with player (1 or 2) to move and every position below it that
+    // is not solved yet, and returns how many it newly solved.
+    private static int solve(int[] cells, int index, int player, int[] score, byte[] table) {
+        if ((table[index] & REACHABLE) != 0) {
+            return 0;
+        }
+        int empties = 0;
+        for (int cell : cells) {
+            empties += cell == 0 ? 1 : 0;
+        }
+        int other = 3 - player;
+        if (hasLine(cells, other)) {
+            score[index] = -(1 + empties);
+            table[index] = (byte) (REACHABLE | LOSS << 4 | NO_MOVE);
+            return 1;
+        }
+        if (empties == 0) {
+            table[index] = (byte) (REACHABLE | DRAW << 4 | NO_MOVE);
+            return 1;
+        }
+        int solved = 1;
+        int best = Integer.MIN_VALUE;
+        int bestCell = -1;
+        for (int cell = 0; cell < 9; cell++) {
+            if (cells[cell] != 0) {
+                continue;
+            }
+            int child = index + player * POWERS[cell];
+            cells[cell] = player;
+            solved += solve(cells, child, other, score, table);
+            cells[cell] = 0;
+            if (-score[child] > best) {
+                best = -score[child];
+                bestCell = cell;
+            }
+        }
+        score[index] = best;
+        table[index] = (byte) (REACHABLE | (best > 0 ? WIN : best < 0 ? LOSS : DRAW) << 4 | bestCell);
+        return solved;
+    }
+
+    private static boolean hasLine(int[] cells, int player) {
+        for (int[] line : LINES) {
+            if (cells[line[0]] == player && cells[line[1]] == player && cells[line[2]] == player) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Checks another player against the table as an oracle: for every reachable, unfinished
+    // position with side ('x' or 'o') to move, mover must pick an empty cell that keeps the
+    // table's value. Returns the indexes of the positions where it did not.
+    public List<Integer> verify(char side, ToIntFunction<char[][]> mover) {
+        List<Integer> wrong = new ArrayList<>();
+        for (int index = 0; index < ENTRIES; index++) {
+            if (bestMove(index) < 0) {
+                continue;
+            }
+            char[][] board = new char[3][3];
+            int xs = 0;
+            int os = 0;
+            for (int cell = 0, rest = index; cell < 9; cell++, rest /= 3) {
+                board[cell / 3][cell % 3] = rest % 3 == 1 ? 'x' : rest % 3 == 2 ? 'o' : ' ';
+                xs += rest % 3 == 1 ? 1 : 0;
+                os += rest % 3 == 2 ? 1 : 0;
+            }
+            if ((xs == os) != (side == 'x')) {
+                continue;
+            }
+            int cell = mover.applyAsInt(board);
+            int mark = side == 'x' ? 1 : 2;
+            if (cell < 0 || cell >= 9 || index / POWERS[cell] % 3 != 0
+                    || 2 - value(index + mark * POWERS[cell]) != value(index)) {
+                wrong.add(index);
+            }
+        }
+        return wrong;
+    }
+
+    public void write(Path file) throws IOException {
+        ByteBuffer data = entries.duplicate();
+        data.clear();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+    }
+
+    public static PerfectPlayTable map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_BYTES + ENTRIES) {
+                throw new IOException(file + " has " + channel.size() + " bytes, not " + (HEADER_BYTES + ENTRIES));
+            }
+            ByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES + ENTRIES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (entries.getInt(0) != MAGIC || entries.getInt(4) != VERSION || entries.getInt(8) != ENTRIES) {
+                throw new IOException(file + " is not a version " + VERSION + " TicTacToe table");
+            }
+            return new PerfectPlayTable(entries, entries.getInt(12));
+        }
+    }
+
+    // Offline build: PerfectPlayTable <file>. Also checks the bitboard engine against the table.
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: PerfectPlayTable <file>");
+            System.exit(2);
+        }
+        PerfectPlayTable table = build();
+        table.write(Paths.get(args[0]));
+        System.out.println("Wrote " + table.reachable() + " reachable positions to " + args[0]);
+        BitboardEngine engine = new BitboardEngine(3, 3, 12);
+        for (char side : new char[] {'x', 'o'}) {
+            List<Integer> wrong = table.verify(side, board -> {
+                long mine = 0;
+                long theirs = 0;
+                for (int cell = 0; cell < 9; cell++) {
+                    char mark = board[cell / 3][cell % 3];
+                    mine |= mark == side ? 1L << cell : 0;
+                    theirs |= mark != side && mark != ' ' ? 1L << cell : 0;
+                }
+                return engine.bestMove(mine, theirs, 9);
+            });
+            System.out.println("BitboardEngine as '" + side + "': " + wrong.size() + " suboptimal moves");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Solves sliding puzzles in bulk. Instances are streamed from a file, one per line as the N*N
+// tiles row by row (0 for the blank); blank lines and lines starting with # are skipped.
+// Unsolvable instances are rejected by the inversion-parity test before they reach a worker,
+// so they cost O(cells^2) instead of a search of the whole state space. The rest go to a fixed
+// pool whose queue is bounded: when the workers fall behind, the reading thread solves the next
+// instance itself, so memory stays flat however long the file is.
+//
+// Every result is one tab-separated line, written through a shared buffered writer as soon as
+// it is ready, so lines come out in completion order and carry the 1-based input line number:
+//   line  length  nodes  micros  moves      for a solved instance
+//   line  unsolvable                        for a parity failure
+//   line  error  message                    for a malformed line
+// Workers use IdaStarSolver (constant memory per thread), with pattern tables if given.
+public class PuzzleBatch {
+    private final int threads;
+    private final PatternDatabase patterns; // null for Manhattan + linear conflicts
+    private final ThreadLocal<IdaStarSolver[]> solvers; // per thread, one per board size
+    final AtomicLong solved = new AtomicLong();
+    final AtomicLong unsolvable = new AtomicLong();
+    final AtomicLong malformed = new AtomicLong();
+
+    public PuzzleBatch(int threads, PatternDatabase patterns) {
+        this.threads = threads;
+        this.patterns = patterns;
+        this.solvers = ThreadLocal.withInitial(() -> new IdaStarSolver[17]);
+    }
+
+    public void run(Path input, Path output) throws IOException, InterruptedException {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+                BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            for (String line; (line = in.readLine()) != null; ) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int number = lineNumber;
+                int[] tiles;
+                try {
+                    tiles = parse(line);
+                } catch (IllegalArgumentException e) {
+                    malformed.incrementAndGet();
+                    write(out, number + "\terror\t" + e.getMessage());
+                    continue;
+                }
+                int n = (int) Math.round(Math.sqrt(tiles.length));
+                if (!IdaStarSolver.isSolvable(tiles, n)) {
+                    unsolvable.incrementAndGet();
+                    write(out, number + "\tunsolvable");
+                    continue;
+                }
+                pool.execute(() -> write(out, solve(number, tiles, n)));
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private String solve(int number, int[] tiles, int n) {
+        IdaStarSolver[] mine = solvers.get();
+        if (mine[n] == null) {
+            mine[n] = patterns != null && patterns.size() == n ? new IdaStarSolver(patterns) : new IdaStarSolver(n);
+        }
+        int[][] start = new int[n][n];
+        for (int cell = 0; cell < tiles.length; cell++) {
+            start[cell / n][cell % n] = tiles[cell];
+        }
+        long began = System.nanoTime();
+        String moves = mine[n].solve(start);
+        long micros = (System.nanoTime() - began) / 1000;
+        solved.incrementAndGet();
+        return number + "\t" + moves.length() + "\t" + mine[n].nodes() + "\t" + micros + "\t" + moves;
+    }
+
+    private static void write(BufferedWriter out, String line) {
+        synchronized (out) {
+            try {
+                out.write(line);
+                out.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Tiles of one line; they must be a permutation of 0 .. N*N - 1 for some N from 2 to 16.
+    static int[] parse(String line) {
+        String[] fields = line.split("[\\s,]+");
+        int n = (int) Math.round(Math.sqrt(fields.length));
+        if (n * n != fields.length || n < 2 || n > 16) {
+            throw new IllegalArgumentException(fields.length + " tiles do not make an N x N board");
+        }
+        int[] tiles = new int[fields.length];
+        boolean[] seen = new boolean[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            int tile;
+            try {
+                tile = Integer.parseInt(fields[i]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("not a tile: " + fields[i]);
+            }
+            if (tile < 0 || tile >= fields.length || seen[tile]) {
+                throw new IllegalArgumentException("tile " + tile + " is out of range or repeated");
+            }
+            seen[tile] = true;
+            tiles[i] = tile;
+        }
+        return tiles;
+    }
+
+    @Override
+    public String toString() {
+        return solved + " solved, " + unsolvable + " unsolvable, " + malformed + " malformed";
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.*;
+
+// Binary min-heap of packed puzzle states for the A* open list. An entry is an int priority, the
+// packed long state and the blank's cell, kept in three parallel arrays, so queueing a state
+// allocates nothing. Callers read the top with peekState/peekBlank/peekPriority before poll.
+public class PuzzleQueue {
+    private int[] priorities = new int[1024];
+    private long[] states = new long[1024];
+    private byte[] blanks = new byte[1024];
+    private int size;
+
+    // Orders by f, then prefers the deeper of two states with the same f: those are closer to the goal.
+    static int priority(int f, int g) {
+        return f << 16 | (0xFFFF - g);
+    }
+
+    // The g a priority was built from.
+    static int g(int priority) {
+        return 0xFFFF - (priority & 0xFFFF);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int peekPriority() {
+        return priorities[0];
+    }
+
+    public long peekState() {
+        return states[0];
+    }
+
+    public int peekBlank() {
+        return blanks[0];
+    }
+
+    public void add(int priority, long state, int blank) {
+        if (size == priorities.length) {
+            priorities = Arrays.copyOf(priorities, size * 2);
+            states = Arrays.copyOf(states, size * 2);
+            blanks = Arrays.copyOf(blanks, size * 2);
+        }
+        int slot = size++;
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            move(parent, slot);
+            slot = parent;
+        }
+        priorities[slot] = priority;
+        states[slot] = state;
+        blanks[slot] = (byte) blank;
+    }
+
+    // Removes the top entry.
+    public void poll() {
+        if (--size == 0) {
+            return;
+        }
+        int priority = priorities[size];
+        long state = states[size];
+        byte blank = blanks[size];
+        int slot = 0;
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+                child++;
+            }
+            if (priority <= priorities[child]) {
+                break;
+            }
+            move(child, slot);
+            slot = child;
+        }
+        priorities[slot] = priority;
+        states[slot] = state;
+        blanks[slot] = blank;
+    }
+
+    private void move(int from, int to) {
+        priorities[to] = priorities[from];
+        states[to] = states[from];
+        blanks[to] = blanks[from];
+    }
+}
@@ -0,0 +1,374 @@
+import java.util.*;
+
+// Scratch state for searches on one CsrGraph. The graph itself is never written to, so any
+// number of threads can query it, each with its own context. A g/parent entry only counts if
+// its stamp equals the current generation, so starting a new query just bumps the generation
+// instead of clearing n-sized arrays, and nothing is allocated per query apart from the path.
+public class SearchContext {
+    static final double ANYTIME_WEIGHT_STEP = 0.5; // how much each anytime round lowers the heuristic weight
+
+    final CsrGraph graph;
+    final double[] g; // cost of the cheapest known path from the start
+    final int[] parent; // previous vertex on that path
+    final int[] stamp; // generation in which g and parent were last written
+    final int[] closedStamp; // closed generation in which the vertex was expanded
+    final int[] targetStamp; // generation in which the vertex was marked as a one-to-many target
+    final IndexedMinHeap openList;
+    final SearchStats stats = new SearchStats(); // reused for every report to a query's listener
+    int generation;
+    int closedGeneration; // counted separately, so an anytime round can reopen every vertex but keep g
+    int[] inconsistent = new int[16]; // anytime search: closed vertices whose g dropped in this round
+    int inconsistentCount;
+
+    public SearchContext(CsrGraph graph) {
+        int n = graph.vertexCount();
+        this.graph = graph;
+        this.g = new double[n];
+        this.parent = new int[n];
+        this.stamp = new int[n];
+        this.closedStamp = new int[n];
+        this.targetStamp = new int[n];
+        this.openList = new IndexedMinHeap(n);
+    }
+
+    void reset() {
+        openList.clear();
+        if (++generation == Integer.MAX_VALUE) { // stamps are about to wrap, so clear them for real
+            Arrays.fill(stamp, 0);
+            Arrays.fill(targetStamp, 0);
+            generation = 1;
+        }
+        reopenAll();
+    }
+
+    // Forgets which vertices are closed without touching g or parent.
+    void reopenAll() {
+        if (++closedGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(closedStamp, 0);
+            closedGeneration = 1;
+        }
+    }
+
+    double g(int v) {
+        return stamp[v] == generation ? g[v] : Double.POSITIVE_INFINITY;
+    }
+
+    void reach(int v, double cost, int from) {
+        g[v] = cost;
+        parent[v] = from;
+        stamp[v] = generation;
+    }
+
+    boolean isClosed(int v) {
+        return closedStamp[v] == closedGeneration;
+    }
+
+    void close(int v) {
+        closedStamp[v] = closedGeneration;
+    }
+
+    public int[] aStar(int start, int goal) {
+        return aStar(start, goal, graph.heuristic);
+    }
+
+    public int[] aStar(int start, int goal, Heuristic heuristic) {
+        return aStar(start, goal, heuristic, null);
+    }
+
+    // listener, if not null, gets the statistics of this query only.
+    public int[] aStar(int start, int goal, Heuristic heuristic, SearchListener listener) {
+        CsrGraph graph = this.graph;
+        long began = listener != null ? System.nanoTime() : 0;
+        reset();
+        reach(start, 0, -1);
+        openList.add(start, heuristic.estimate(start, goal));
+        long searching = listener != null ? System.nanoTime() : 0;
+
+        long expanded = 0;
+        long relaxed = 0;
+        long pushes = 1;
+        long decreases = 0;
+        long reopenings = 0;
+        int peakOpen = 1;
+        boolean found = false;
+        while (!openList.isEmpty()) {
+            int current = openList.poll();
+            if (current == goal) {
+                found = true;
+                break;
+            }
+            close(current);
+            expanded++;
+
+            double currentG = g[current];
+            for (int e = graph.edgesBegin(current); e < graph.edgesBegin(current + 1); e++) {
+                int neighbor = graph.target(e);
+                relaxed++;
+                double tentativeG = currentG + graph.cost(e);
+                if (isClosed(neighbor)) {
+                    if (listener != null && tentativeG < g[neighbor]) {
+                        reopenings++; // only possible with an inconsistent heuristic; the closed node is kept
+                    }
+                    continue;
+                }
+                if (tentativeG < g(neighbor)) {
+                    reach(neighbor, tentativeG, current);
+                    if (openList.contains(neighbor)) {
+                        openList.decreaseKey(neighbor, tentativeG + heuristic.estimate(neighbor, goal));
+                        decreases++;
+                    } else {
+                        openList.add(neighbor, tentativeG + heuristic.estimate(neighbor, goal));
+                        pushes++;
+                        peakOpen = Math.max(peakOpen, openList.size());
+                    }
+                }
+            }
+        }
+
+        long pathing = listener != null ? System.nanoTime() : 0;
+        int[] path = found ? reconstructPath(goal) : new int[0]; // empty path means no path found
+        if (listener != null) {
+            listener.searchFinished(stats.record(found, expanded, relaxed, pushes, expanded + (found ? 1 : 0),
+                    decreases, reopenings, peakOpen, expanded, began, searching, pathing));
+        }
+        return path;
+    }
+
+    // Anytime Repairing A* (ARA*) for callers with a deadline rather than a need for the optimum.
+    // The first round runs A* with the heuristic multiplied by weight, which finds a path fast. Each
+    // further round lowers the weight by ANYTIME_WEIGHT_STEP, keeps the g values of the round before
+    // and only re-expands vertices whose g improved, until the weight reaches 1 or the budget of
+    // budgetNanos / maxExpansions is spent. A round's path costs at most weight times the optimum;
+    // the returned bound is the tighter of that and cost / (lowest g + h still open), which
+    // assumes a consistent heuristic like the rest of the searches here.
+    public AnytimeResult<int[]> anytimeAStar(int start, int goal, Heuristic heuristic, double weight,
+            long budgetNanos, long maxExpansions) {
+        return anytimeAStar(start, goal, heuristic, weight, budgetNanos, maxExpansions, null);
+    }
+
+    public AnytimeResult<int[]> anytimeAStar(int start, int goal, Heuristic heuristic, double weight,
+            long budgetNanos, long maxExpansions, SearchListener listener) {
+        CsrGraph graph = this.graph;
+        long began = System.nanoTime();
+        long deadline = began + budgetNanos;
+        reset();
+        inconsistentCount = 0;
+        weight = Math.max(1, weight);
+        reach(start, 0, -1);
+        openList.add(start, weight * heuristic.estimate(start, goal));
+        double goalH = heuristic.estimate(goal, goal);
+        long searching = listener != null ? System.nanoTime() : 0;
+
+        long expanded = 0;
+        long relaxed = 0;
+        long pushes = 1;
+        long decreases = 0;
+        long reopenings = 0;
+        int peakOpen = 1;
+        int[] bestPath = new int[0];
+        double bestCost = Double.POSITIVE_INFINITY;
+        double bound = Double.POSITIVE_INFINITY;
+        int solutions = 0;
+        boolean complete = false;
+        while (true) {
+            // one round: expand until no open vertex can lead to a cheaper path to goal under this weight
+            boolean outOfBudget = false;
+            while (!openList.isEmpty() && g(goal) + weight * goalH > openList.peekKey()) {
+                if (expanded >= maxExpansions || ((expanded & 255) == 0 && System.nanoTime() - deadline > 0)) {
+                    outOfBudget = true;
+                    break;
+                }
+                int current = openList.poll();
+                close(current);
+                expanded++;
+
+                double currentG = g[current];
+                for (int e = graph.edgesBegin(current); e < graph.edgesBegin(current + 1); e++) {
+                    int neighbor = graph.target(e);
+                    relaxed++;
+                    double tentativeG = currentG + graph.cost(e);
+                    if (tentativeG < g(neighbor)) {
+                        reach(neighbor, tentativeG, current);
+                        if (isClosed(neighbor)) {
+                            addInconsistent(neighbor); // not expanded again this round, but in the next one
+                            reopenings++;
+                        } else if (openList.contains(neighbor)) {
+                            openList.decreaseKey(neighbor, tentativeG + weight * heuristic.estimate(neighbor, goal));
+                            decreases++;
+                        } else {
+                            openList.add(neighbor, tentativeG + weight * heuristic.estimate(neighbor, goal));
+                            pushes++;
+                            peakOpen = Math.max(peakOpen, openList.size());
+                        }
+                    }
+                }
+            }
+            if (outOfBudget) {
+                break; // keep the path and bound of the last finished round
+            }
+
+            if (g(goal) < bestCost) {
+                bestPath = reconstructPath(goal);
+                bestCost = pathCost(bestPath); // can be below g(goal) when an ancestor improved after goal was reached
+                solutions++;
+            }
+            if (bestCost == Double.POSITIVE_INFINITY) {
+                complete = true; // the open list ran dry, so there is no path
+                break;
+            }
+            double lowerBound = bestCost; // nothing left open means nothing can beat bestCost
+            for (int slot = 0; slot < openList.size(); slot++) {
+                int v = openList.idAt(slot);
+                lowerBound = Math.min(lowerBound, g[v] + heuristic.estimate(v, goal));
+            }
+            for (int i = 0; i < inconsistentCount; i++) {
+                int v = inconsistent[i];
+                lowerBound = Math.min(lowerBound, g[v] + heuristic.estimate(v, goal));
+            }
+            bound = bestCost <= lowerBound ? 1 : Math.min(weight, bestCost / lowerBound);
+            if (bound <= 1) {
+                complete = true;
+                break;
+            }
+            if (expanded >= maxExpansions || System.nanoTime() - deadline > 0) {
+                break;
+            }
+
+            // next round: queue the inconsistent vertices, rekey everything for the lower weight and reopen
+            weight = Math.max(1, weight - ANYTIME_WEIGHT_STEP);
+            for (int i = 0; i < inconsistentCount; i++) {
+                if (!openList.contains(inconsistent[i])) {
+                    openList.add(inconsistent[i], 0);
+                }
+            }
+            inconsistentCount = 0;
+            double roundWeight = weight;
+            openList.rekey(v -> g[v] + roundWeight * heuristic.estimate(v, goal));
+            peakOpen = Math.max(peakOpen, openList.size());
+            reopenAll();
+        }
+
+        if (listener != null) {
+            listener.searchFinished(stats.record(solutions > 0, expanded, relaxed, pushes, expanded,
+                    decreases, reopenings, peakOpen, expanded, began, searching, System.nanoTime()));
+        }
+        return new AnytimeResult<>(bestPath, bestCost, bound, solutions, expanded, complete);
+    }
+
+    // Cost of a path along the cheapest edge between each pair of consecutive vertices.
+    double pathCost(int[] path) {
+        double cost = 0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            double step = Double.POSITIVE_INFINITY;
+            for (int e = graph.edgesBegin(path[i]); e < graph.edgesBegin(path[i] + 1); e++) {
+                if (graph.target(e) == path[i + 1]) {
+                    step = Math.min(step, graph.cost(e));
+                }
+            }
+            cost += step;
+        }
+        return cost;
+    }
+
+    private void addInconsistent(int v) {
+        if (inconsistentCount == inconsistent.length) {
+            inconsistent = Arrays.copyOf(inconsistent, inconsistentCount * 2);
+        }
+        inconsistent[inconsistentCount++] = v;
+    }
+
+    // Full Dijkstra sweep: distances from source to every vertex, POSITIVE_INFINITY if unreachable.
+    public double[] distancesFrom(int source) {
+        int[] all = new int[graph.vertexCount()];
+        for (int v = 0; v < all.length; v++) {
+            all[v] = v;
+        }
+        double[] distances = new double[all.length];
+        oneToMany(source, all, distances, null, 0);
+        return distances;
+    }
+
+    // Dijkstra sweep from source that stops as soon as every target is settled. Writes the
+    // distance to targets[i] into distances[offset + i], and the path into paths[offset + i]
+    // when paths is not null.
+    public void oneToMany(int source, int[] targets, double[] distances, int[][] paths, int offset) {
+        oneToMany(source, targets, distances, paths, offset, null);
+    }
+
+    public void oneToMany(int source, int[] targets, double[] distances, int[][] paths, int offset,
+            SearchListener listener) {
+        CsrGraph graph = this.graph;
+        long began = listener != null ? System.nanoTime() : 0;
+        reset();
+        int remaining = 0;
+        for (int target : targets) {
+            if (targetStamp[target] != generation) {
+                targetStamp[target] = generation;
+                remaining++;
+            }
+        }
+        reach(source, 0, -1);
+        openList.add(source, 0);
+        long searching = listener != null ? System.nanoTime() : 0;
+
+        long expanded = 0;
+        long relaxed = 0;
+        long pushes = 1;
+        long decreases = 0;
+        int peakOpen = 1;
+        while (!openList.isEmpty() && remaining > 0) {
+            int current = openList.poll();
+            close(current);
+            expanded++;
+            if (targetStamp[current] == generation) {
+                remaining--;
+            }
+
+            double currentG = g[current];
+            for (int e = graph.edgesBegin(current); e < graph.edgesBegin(current + 1); e++) {
+                int neighbor = graph.target(e);
+                relaxed++;
+                if (isClosed(neighbor)) {
+                    continue;
+                }
+                double tentativeG = currentG + graph.cost(e);
+                if (tentativeG < g(neighbor)) {
+                    reach(neighbor, tentativeG, current);
+                    if (openList.contains(neighbor)) {
+                        openList.decreaseKey(neighbor, tentativeG);
+                        decreases++;
+                    } else {
+                        openList.add(neighbor, tentativeG);
+                        pushes++;
+                        peakOpen = Math.max(peakOpen, openList.size());
+                    }
+                }
+            }
+        }
+
+        long pathing = listener != null ? System.nanoTime() : 0;
+        for (int i = 0; i < targets.length; i++) {
+            boolean settled = isClosed(targets[i]);
+            distances[offset + i] = settled ? g[targets[i]] : Double.POSITIVE_INFINITY;
+            if (paths != null) {
+                paths[offset + i] = settled ? reconstructPath(targets[i]) : new int[0];
+            }
+        }
+        if (listener != null) { // found means every target was reached
+            listener.searchFinished(stats.record(remaining == 0, expanded, relaxed, pushes, expanded, decreases,
+                    0, peakOpen, expanded, began, searching, pathing));
+        }
+    }
+
+    int[] reconstructPath(int goal) {
+        int length = 0;
+        for (int v = goal; v != -1; v = parent[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = goal; v != -1; v = parent[v]) {
+            path[--length] = v;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,5 @@
+// Receives the statistics of every finished search. A search with no listener (null) skips the
+// timing calls and the report entirely. Called on the searching thread.
+public interface SearchListener {
+    void searchFinished(SearchStats stats);
+}
@@ -0,0 +1,86 @@
+import java.util.concurrent.atomic.*;
+
+// SearchListener that sums the statistics of all searches, from any number of threads. The
+// counters are LongAdders, so threads reporting at the same time do not contend on one field.
+public class SearchMetrics implements SearchListener {
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder found = new LongAdder();
+    private final LongAdder expanded = new LongAdder();
+    private final LongAdder relaxed = new LongAdder();
+    private final LongAdder pushes = new LongAdder();
+    private final LongAdder pops = new LongAdder();
+    private final LongAdder decreases = new LongAdder();
+    private final LongAdder reopenings = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    private final LongAdder setupNanos = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder pathNanos = new LongAdder();
+    private final LongAccumulator peakOpen = new LongAccumulator(Math::max, 0);
+
+    @Override
+    public void searchFinished(SearchStats stats) {
+        searches.increment();
+        if (stats.found) {
+            found.increment();
+        }
+        expanded.add(stats.expanded);
+        relaxed.add(stats.relaxed);
+        pushes.add(stats.pushes);
+        pops.add(stats.pops);
+        decreases.add(stats.decreases);
+        reopenings.add(stats.reopenings);
+        closed.add(stats.closed);
+        setupNanos.add(stats.setupNanos);
+        searchNanos.add(stats.searchNanos);
+        pathNanos.add(stats.pathNanos);
+        peakOpen.accumulate(stats.peakOpen);
+    }
+
+    public long searches() {
+        return searches.sum();
+    }
+
+    public long expanded() {
+        return expanded.sum();
+    }
+
+    public long relaxed() {
+        return relaxed.sum();
+    }
+
+    public long pushes() {
+        return pushes.sum();
+    }
+
+    public long pops() {
+        return pops.sum();
+    }
+
+    public long reopenings() {
+        return reopenings.sum();
+    }
+
+    public long peakOpen() {
+        return peakOpen.get();
+    }
+
+    public void reset() {
+        for (LongAdder adder : new LongAdder[] {searches, found, expanded, relaxed, pushes, pops, decreases,
+                reopenings, closed, setupNanos, searchNanos, pathNanos}) {
+            adder.reset();
+        }
+        peakOpen.reset();
+    }
+
+    @Override
+    public String toString() {
+        long n = Math.max(1, searches.sum());
+        return String.format("%d searches (%d found): per search %.1f expanded, %.1f relaxed, %.1f pushes, "
+                        + "%.1f pops, %.1f decreases, %.1f reopenings, %.1f closed; peak open %d; "
+                        + "setup %.1f us, search %.1f us, path %.1f us",
+                searches.sum(), found.sum(), (double) expanded.sum() / n, (double) relaxed.sum() / n,
+                (double) pushes.sum() / n, (double) pops.sum() / n, (double) decreases.sum() / n,
+                (double) reopenings.sum() / n, (double) closed.sum() / n, peakOpen.get(),
+                setupNanos.sum() / 1e3 / n, searchNanos.sum() / 1e3 / n, pathNanos.sum() / 1e3 / n);
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.*;
+
+// Search state for graphs too large or too implicit for per-vertex arrays: an open-addressing hash
+// map from a long vertex key to g, f, parent and a closed flag, sized to the vertices a search
+// actually touches. Entries are numbered densely in insertion order and the values live in
+// parallel primitive arrays indexed by that number, so nothing is boxed, parents are plain ints,
+// and the entry number can be used directly as an IndexedMinHeap id.
+public class SearchStateMap {
+    private int[] table; // hash slot -> entry number, -1 when empty
+    private long[] keys; // entry -> vertex key
+    private double[] g; // entry -> cost of the cheapest known path from the start
+    private double[] f; // entry -> g + h
+    private int[] parent; // entry -> entry of the previous vertex, -1 for the start
+    private boolean[] closed; // entry -> already expanded
+    private int size;
+
+    public SearchStateMap() {
+        this(16);
+    }
+
+    public SearchStateMap(int expectedEntries) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedEntries) * 2 - 1) << 1;
+        table = new int[capacity];
+        Arrays.fill(table, -1);
+        keys = new long[capacity / 2];
+        g = new double[capacity / 2];
+        f = new double[capacity / 2];
+        parent = new int[capacity / 2];
+        closed = new boolean[capacity / 2];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Entry of key, or -1 if the search has not touched it yet.
+    public int indexOf(long key) {
+        int mask = table.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry < 0 || keys[entry] == key) {
+                return entry;
+            }
+        }
+    }
+
+    // Adds key with g and f at infinity and no parent, and returns its new entry number.
+    // The caller must know the key is not present yet.
+    public int insert(long key) {
+        if (size == keys.length) {
+            grow();
+        }
+        int entry = size++;
+        keys[entry] = key;
+        g[entry] = Double.POSITIVE_INFINITY;
+        f[entry] = Double.POSITIVE_INFINITY;
+        parent[entry] = -1;
+        closed[entry] = false;
+        place(key, entry);
+        return entry;
+    }
+
+    public long key(int entry) {
+        return keys[entry];
+    }
+
+    public double g(int entry) {
+        return g[entry];
+    }
+
+    public double f(int entry) {
+        return f[entry];
+    }
+
+    public int parent(int entry) {
+        return parent[entry];
+    }
+
+    public void update(int entry, double newG, double newF, int newParent) {
+        g[entry] = newG;
+        f[entry] = newF;
+        parent[entry] = newParent;
+    }
+
+    public boolean isClosed(int entry) {
+        return closed[entry];
+    }
+
+    public void close(int entry) {
+        closed[entry] = true;
+    }
+
+    // Forgets all entries but keeps the arrays, for the next search.
+    public void clear() {
+        Arrays.fill(table, -1);
+        size = 0;
+    }
+
+    private void place(long key, int entry) {
+        int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        while (table[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry;
+    }
+
+    // Doubles the table (keeping it at most half full) and the entry arrays, then re-places the keys.
+    private void grow() {
+        int entries = keys.length * 2;
+        keys = Arrays.copyOf(keys, entries);
+        g = Arrays.copyOf(g, entries);
+        f = Arrays.copyOf(f, entries);
+        parent = Arrays.copyOf(parent, entries);
+        closed = Arrays.copyOf(closed, entries);
+        table = new int[entries * 2];
+        Arrays.fill(table, -1);
+        for (int entry = 0; entry < size; entry++) {
+            place(keys[entry], entry);
+        }
+    }
+
+    // Murmur3 finalizer, so sequential ids and packed coordinates spread over the table.
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
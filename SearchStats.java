@@ -0,0 +1,39 @@
+// Counters and phase timings of one search, handed to a SearchListener when the search ends.
+// Searches count in local variables and fill this in once at the end, so the hot loop pays
+// nothing extra for it. Listeners must copy what they need: the object may be reused.
+public class SearchStats {
+    public long expanded; // nodes taken off the open list and expanded
+    public long relaxed; // edges (or moves) looked at from expanded nodes
+    public long pushes; // insertions into the open list
+    public long pops; // removals from the open list, including stale entries that were skipped
+    public long decreases; // in-place key decreases on the open list
+    // Already expanded nodes reached again at a lower cost. The A* searches count these but do not
+    // reopen them, so a non-zero count means the heuristic is inconsistent and a path may be
+    // suboptimal. ARA* does reopen them, in its next round. Only counted while a listener is set.
+    public long reopenings;
+    public long peakOpen; // largest open list size seen
+    public long closed; // size of the closed set at the end
+    public long setupNanos; // clearing and seeding the search
+    public long searchNanos; // the main loop
+    public long pathNanos; // reconstructing the path
+    public boolean found;
+
+    // Fills in everything from a search's local counters. The three timestamps are System.nanoTime()
+    // at the start of setup, of the main loop and of path reconstruction; the path phase ends now.
+    SearchStats record(boolean found, long expanded, long relaxed, long pushes, long pops, long decreases,
+            long reopenings, long peakOpen, long closed, long began, long searching, long pathing) {
+        this.found = found;
+        this.expanded = expanded;
+        this.relaxed = relaxed;
+        this.pushes = pushes;
+        this.pops = pops;
+        this.decreases = decreases;
+        this.reopenings = reopenings;
+        this.peakOpen = peakOpen;
+        this.closed = closed;
+        this.setupNanos = searching - began;
+        this.searchNanos = pathing - searching;
+        this.pathNanos = System.nanoTime() - pathing;
+        return this;
+    }
+}
@@ -0,0 +1,120 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Self-play evaluation over GameSession: every game is its own task, so thousands of sessions are
+// open at once, and the engine plays both sides after randomPlies random opening moves (without
+// them every 3x3 game would be the same perfect draw). Each bestMove call is timed; the report
+// gives games per second and move-latency percentiles. Nothing is printed while games run.
+//
+// Games run on virtual threads where the JDK has them (21 and later). The factory is looked up
+// reflectively so the class still builds and runs on JDK 17, where the games share a
+// ForkJoinPool with one thread per core instead.
+public class SelfPlay {
+    private final int n;
+    private final int k;
+    private final int searchDepth;
+    private final int randomPlies;
+    final AtomicLong xWins = new AtomicLong();
+    final AtomicLong oWins = new AtomicLong();
+    final AtomicLong draws = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    private long[] latencies; // game * cells + ply -> nanos of bestMove, 0 where no search ran
+    private String executor = "";
+    private int games;
+    private long nanos;
+
+    public SelfPlay(int n, int k, int searchDepth, int randomPlies) {
+        this.n = n;
+        this.k = k;
+        this.searchDepth = searchDepth;
+        this.randomPlies = randomPlies;
+    }
+
+    public void run(int games) throws InterruptedException {
+        this.games = games;
+        latencies = new long[games * n * n];
+        ExecutorService pool = newExecutor();
+        executor = pool instanceof ForkJoinPool ? "ForkJoinPool" : "virtual threads";
+        new GameSession(n, k, searchDepth).bestMove(); // builds the shared 3x3 table outside the timing
+        long began = System.nanoTime();
+        for (int g = 0; g < games; g++) {
+            int game = g;
+            pool.execute(() -> {
+                try {
+                    play(game);
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        nanos = System.nanoTime() - began;
+    }
+
+    static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    private void play(int game) {
+        GameSession session = new GameSession(n, k, searchDepth);
+        SplittableRandom random = new SplittableRandom(game);
+        int first = game * n * n;
+        char state = GameSession.ONGOING;
+        while (state == GameSession.ONGOING) {
+            int cell;
+            if (session.moves() < randomPlies) {
+                do {
+                    cell = random.nextInt(n * n);
+                } while (session.mark(cell) != ' ');
+            } else {
+                long began = System.nanoTime();
+                cell = session.bestMove();
+                latencies[first + session.moves()] = Math.max(1, System.nanoTime() - began);
+            }
+            state = session.applyMove(cell);
+        }
+        (state == 'x' ? xWins : state == 'o' ? oWins : draws).incrementAndGet();
+    }
+
+    public double gamesPerSecond() {
+        return nanos == 0 ? 0 : games * 1e9 / nanos;
+    }
+
+    // Move latencies in nanoseconds at the given percentiles (0 to 100), from the last run.
+    public long[] latencyPercentiles(double... percentiles) {
+        long[] sorted = Arrays.stream(latencies).filter(latency -> latency > 0).sorted().toArray();
+        long[] result = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length && sorted.length > 0; i++) {
+            int rank = (int) Math.ceil(percentiles[i] / 100 * sorted.length) - 1;
+            result[i] = sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        long[] p = latencyPercentiles(50, 90, 99, 100);
+        return String.format("%d games on %s in %.1f ms: %.0f games/s, x won %d, o won %d, %d draws, %d failed%n"
+                + "move latency p50 %.1f us, p90 %.1f us, p99 %.1f us, max %.1f us",
+                games, executor, nanos / 1e6, gamesPerSecond(), xWins.get(), oWins.get(), draws.get(), failed.get(),
+                p[0] / 1e3, p[1] / 1e3, p[2] / 1e3, p[3] / 1e3);
+    }
+
+    // java SelfPlay [games] [n] [k] [searchDepth] [randomPlies]
+    public static void main(String[] args) throws InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : n;
+        int searchDepth = args.length > 3 ? Integer.parseInt(args[3]) : n * n;
+        int randomPlies = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        SelfPlay selfPlay = new SelfPlay(n, k, searchDepth, randomPlies);
+        selfPlay.run(games);
+        System.out.println(selfPlay);
+    }
+}
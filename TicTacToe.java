@@ -1,4 +1,6 @@
- import java.util.*;
+ import java.io.*;
+import java.nio.file.*;
+import java.util.*;
 
 class Board {
     char board[][];
@@ -30,8 +32,12 @@ public class TicTacToe {
             System.out.println("------------");
         }
     }
+    private static Scanner input; // one for the whole game, so buffered input is not lost between moves
     public static Board playerMove(Board stateOfBoard) {
-        Scanner s = new Scanner(System.in);
+        if (input == null) {
+            input = new Scanner(System.in);
+        }
+        Scanner s = input;
         int row, column;
         do {
             System.out.println("Enter your move row and column : ");
@@ -50,25 +56,75 @@ public class TicTacToe {
     public static boolean isValidMove(char[][] board, int row, int column) {
         return row >= 0 && row < 3 && column >= 0 && column < 3 && board[row][column] == ' ';
     }
+    private static final ThreadLocal<BitboardEngine> ENGINE = ThreadLocal.withInitial(() -> new BitboardEngine(3, 3, 12));
+    private static volatile PerfectPlayTable table; // null until useTable
+    // Answers computerMove from a table written by PerfectPlayTable, mapped rather than searched.
+    public static void useTable(Path file) throws IOException {
+        table = PerfectPlayTable.map(file);
+    }
     public static void computerMove(Board stateOfBoard) {
-        int[] bestMove = {-1, -1};
-        int bestScore = Integer.MIN_VALUE;
+        int cell = computerCell(stateOfBoard.board);
+        stateOfBoard.board[cell / 3][cell % 3] = 'o';
+        System.out.println("Computer's move: (" + cell / 3 + ", " + cell % 3 + ")");
+    }
+    // Alternative to computerMove for boards too big for a full search: 'o' moves after budgetNanos
+    // of Monte Carlo tree search. The player first replays the stones placed since its last call,
+    // so the tree it built then is reused; 'x' is its side 0.
+    public static void computerMove(Board stateOfBoard, MctsPlayer player, long budgetNanos) throws InterruptedException {
+        char[][] board = stateOfBoard.board;
+        int n = board.length;
+        List<Deque<Integer>> placed = Arrays.asList(new ArrayDeque<>(), new ArrayDeque<>());
+        for (int pass = 0; pass < 2; pass++) {
+            boolean consistent = true;
+            for (int cell = 0; cell < n * n; cell++) {
+                char mark = board[cell / n][cell % n];
+                int side = mark == 'x' ? 0 : mark == 'o' ? 1 : -1;
+                int known = player.stone(cell);
+                if (known >= 0 && known != side) {
+                    consistent = false; // not a continuation of the player's game
+                } else if (known < 0 && side >= 0) {
+                    placed.get(side).add(cell);
+                }
+            }
+            if (consistent) {
+                break;
+            }
+            player.reset();
+            placed.forEach(Deque::clear);
+        }
+        while (!placed.get(0).isEmpty() || !placed.get(1).isEmpty()) {
+            Integer cell = placed.get(player.toMove()).poll();
+            if (cell == null) {
+                throw new IllegalArgumentException("Board cannot be reached by alternating moves with 'x' first");
+            }
+            player.play(cell);
+        }
+        int cell = player.bestMove(budgetNanos, Long.MAX_VALUE);
+        player.play(cell);
+        board[cell / n][cell % n] = 'o';
+        System.out.println("Computer's move: (" + cell / n + ", " + cell % n + ")");
+    }
+    // Best cell (row * 3 + column) for 'o': a table lookup once useTable was called, else a full
+    // alpha-beta search on bitboards. minimax below is the plain reference search.
+    static int computerCell(char[][] board) {
+        PerfectPlayTable perfect = table;
+        if (perfect != null) {
+            int cell = perfect.bestMove(board);
+            if (cell >= 0) {
+                return cell;
+            }
+        }
+        long o = 0, x = 0;
         for (int i = 0; i < 3; i++) {
             for (int j = 0; j < 3; j++) {
-                if (stateOfBoard.board[i][j] == ' ') {
-                    stateOfBoard.board[i][j] = 'o';
-                    int score = minimax(stateOfBoard, false);
-                    stateOfBoard.board[i][j] = ' ';
-                    if (score > bestScore) {
-                        bestScore = score;
-                        bestMove[0] = i;
-                        bestMove[1] = j;
-                    }
+                if (board[i][j] == 'o') {
+                    o |= 1L << (i * 3 + j);
+                } else if (board[i][j] == 'x') {
+                    x |= 1L << (i * 3 + j);
                 }
             }
         }
-        stateOfBoard.board[bestMove[0]][bestMove[1]] = 'o';
-        System.out.println("Computer's move: (" + bestMove[0] + ", " + bestMove[1] + ")");
+        return ENGINE.get().bestMove(o, x, 9);
     }
     public static int minimax(Board stateOfBoard, boolean computerTurn) {
         char winner = checkIfGameOver(stateOfBoard);
@@ -148,7 +204,16 @@ public class TicTacToe {
         }
         return newBoard;
     }
-    public static void main(String[] args) {
+    // java TicTacToe [table file from PerfectPlayTable]
+    // java TicTacToe --selfplay [games] [n] [k] [searchDepth] [randomPlies]   headless, see SelfPlay
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("--selfplay")) {
+            SelfPlay.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0) {
+            useTable(Paths.get(args[0]));
+        }
         System.out.println("The initial board is :");
         //char initialBoard[][] = {{'x', 'o', 'x'},{'o', 'o', 'x'},{' ', ' ', ' '},};
         char initialBoard[][] = {{' ', ' ', ' '},{' ', ' ', ' '},{' ', ' ', ' '},};
@@ -160,24 +225,26 @@ public class TicTacToe {
         while (true) {
             Board newState = new Board(copyBoard(initialState.board), initialState.points);
             playerMove(newState);
-            if (checkIfGameOver(newState) != ' ' && checkIfGameOver(newState) != 'f') {
+            char state = checkIfGameOver(newState);
+            if (state != ' ' && state != 'f') {
                 printBoard(newState);
-                System.out.println("Congratulations! you are the Winner: " + checkIfGameOver(newState));
+                System.out.println("Congratulations! you are the Winner: " + state);
                 break;
             }
-            if(checkIfGameOver(newState) == 'f') {
+            if(state == 'f') {
                 printBoard(newState);
                 System.out.println("Its a TIE!!");
                 break;
             }
             computerMove(newState);
-            if (checkIfGameOver(newState) != ' ' && checkIfGameOver(newState) != 'f')
+            state = checkIfGameOver(newState);
+            if (state != ' ' && state != 'f')
             {
                 printBoard(newState);
-                System.out.println("Game Over! The Winner is : " + checkIfGameOver(newState));
+                System.out.println("Game Over! The Winner is : " + state);
                 break;
             }
-            if(checkIfGameOver(newState) == 'f') {
+            if(state == 'f') {
                 printBoard(newState);
                 System.out.println("Its a TIE bruh!!");
                 break;
@@ -0,0 +1,69 @@
+package mllab.bench;
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+// A* on the compact CsrGraph, forward and bidirectional, one random start to the fixed goal per
+// invocation. Throughput and sampled latency (percentiles) are both reported. aStarWithMetrics
+// runs the same forward search but passes a SearchMetrics as the query's listener, so the
+// difference to aStar is the cost of the instrumentation when it is switched on. anytime
+// is the anytime weighted A* stopped after a fixed number of expansions rather than a time
+// budget, so every run does the same work.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx12g"})
+public class CsrGraphBenchmark {
+    @Param({"geometric", "grid", "scalefree"})
+    public String kind;
+
+    @Param({"1000", "100000", "10000000"})
+    public int vertices;
+
+    static final double ANYTIME_WEIGHT = 3;
+    static final long ANYTIME_EXPANSIONS = 10_000;
+
+    private Object graph;
+    private Object metrics; // SearchMetrics listener of aStarWithMetrics
+    private int[] starts;
+    private int goal;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        GraphGenerators.Instance instance = GraphGenerators.generate(kind, vertices, 42);
+        graph = (Object) Targets.CSR_GRAPH.invokeExact(instance.offsets, instance.targets, instance.costs,
+                instance.heuristics, (String[]) null);
+        metrics = (Object) Targets.SEARCH_METRICS.invokeExact();
+        starts = instance.starts;
+        goal = instance.goal;
+    }
+
+    private int nextStart() {
+        next = (next + 1) & (starts.length - 1);
+        return starts[next];
+    }
+
+    @Benchmark
+    public int[] aStar() throws Throwable {
+        return (int[]) Targets.CSR_A_STAR.invokeExact(graph, nextStart(), goal, false);
+    }
+
+    @Benchmark
+    public int[] aStarWithMetrics() throws Throwable {
+        return (int[]) Targets.CSR_A_STAR_LISTENED.invokeExact(graph, nextStart(), goal, false, metrics);
+    }
+
+    @Benchmark
+    public Object anytime() throws Throwable {
+        return (Object) Targets.CSR_ANYTIME_A_STAR.invokeExact(graph, nextStart(), goal, ANYTIME_WEIGHT,
+                Long.MAX_VALUE, ANYTIME_EXPANSIONS);
+    }
+
+    @Benchmark
+    public int[] bidirectional() throws Throwable {
+        return (int[]) Targets.CSR_A_STAR.invokeExact(graph, nextStart(), goal, true);
+    }
+}
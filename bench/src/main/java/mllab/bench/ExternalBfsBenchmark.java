@@ -0,0 +1,48 @@
+package mllab.bench;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+import org.openjdk.jmh.annotations.*;
+
+// One complete ExternalBfs enumeration per invocation, into a fresh work directory so nothing is
+// resumed: the full 8-puzzle space (181440 states) or the 15-puzzle abstracted to tiles 1-4 and
+// the blank (524160 states). chunkStates sets how many successors are sorted in memory before a
+// run goes to disk, so smaller chunks mean more runs to merge.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExternalBfsBenchmark {
+    @Param({"3", "4"})
+    public int size;
+
+    @Param({"65536", "1048576"})
+    public int chunkStates;
+
+    private Path dir;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("bfs");
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<?> run() throws Throwable {
+        int[] pattern = size == 3 ? new int[0] : new int[] {1, 2, 3, 4};
+        Object bfs = (Object) Targets.EXTERNAL_BFS.invokeExact(dir, size, pattern, chunkStates);
+        return (List<?>) Targets.EXTERNAL_BFS_RUN.invokeExact(bfs);
+    }
+}
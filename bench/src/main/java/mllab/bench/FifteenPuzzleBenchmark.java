@@ -0,0 +1,37 @@
+package mllab.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+// Asearch.solve on random solvable 15-puzzle instances scrambled by walks of the given length.
+// With the misplaced-tiles heuristic the open and closed sets grow too fast for longer walks:
+// walks of 40 exhaust a 4 GB heap, so the 4x4 sizes stop at 20.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class FifteenPuzzleBenchmark {
+    @Param({"10", "20"})
+    public int walkLength;
+
+    private int[][][] instances;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        instances = new int[64][][];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = GameGenerators.puzzle(4, walkLength, random);
+        }
+    }
+
+    @Benchmark
+    public Object solve() throws Throwable {
+        next = (next + 1) & (instances.length - 1);
+        return (Object) Targets.PUZZLE_SOLVE.invokeExact(instances[next]);
+    }
+}
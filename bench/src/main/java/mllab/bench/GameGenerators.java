@@ -0,0 +1,69 @@
+package mllab.bench;
+
+import java.util.*;
+
+// Seeded sliding-puzzle instances and tic-tac-toe positions.
+final class GameGenerators {
+    private GameGenerators() {
+    }
+
+    // A size x size puzzle scrambled by a random walk of the blank from the goal layout
+    // (1, 2, ..., blank last) that never undoes its previous step. Walks from the goal only reach
+    // solvable states, so every instance has a solution of at most walkLength moves.
+    static int[][] puzzle(int size, int walkLength, Random random) {
+        int[][] state = new int[size][size];
+        for (int i = 0; i < size * size - 1; i++) {
+            state[i / size][i % size] = i + 1;
+        }
+        int row = size - 1;
+        int col = size - 1;
+        int[][] moves = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        int previous = -1;
+        for (int step = 0; step < walkLength; step++) {
+            int move;
+            int r;
+            int c;
+            do {
+                move = random.nextInt(4);
+                r = row + moves[move][0];
+                c = col + moves[move][1];
+            } while (r < 0 || c < 0 || r >= size || c >= size || (move ^ 1) == previous);
+            state[row][col] = state[r][c];
+            state[r][c] = 0;
+            row = r;
+            col = c;
+            previous = move;
+        }
+        return state;
+    }
+
+    // A 3x3 tic-tac-toe board after the given number of random moves, 'x' first, in which nobody
+    // has won yet.
+    static char[][] position(int moves, Random random) {
+        while (true) {
+            char[][] board = {{' ', ' ', ' '}, {' ', ' ', ' '}, {' ', ' ', ' '}};
+            for (int i = 0; i < moves; i++) {
+                int cell;
+                do {
+                    cell = random.nextInt(9);
+                } while (board[cell / 3][cell % 3] != ' ');
+                board[cell / 3][cell % 3] = i % 2 == 0 ? 'x' : 'o';
+            }
+            if (!hasWinner(board)) {
+                return board;
+            }
+        }
+    }
+
+    private static boolean hasWinner(char[][] b) {
+        for (int i = 0; i < 3; i++) {
+            if (b[i][0] != ' ' && b[i][0] == b[i][1] && b[i][1] == b[i][2]) {
+                return true;
+            }
+            if (b[0][i] != ' ' && b[0][i] == b[1][i] && b[1][i] == b[2][i]) {
+                return true;
+            }
+        }
+        return b[1][1] != ' ' && ((b[0][0] == b[1][1] && b[1][1] == b[2][2]) || (b[0][2] == b[1][1] && b[1][1] == b[2][0]));
+    }
+}
@@ -0,0 +1,232 @@
+package mllab.bench;
+
+import java.util.*;
+
+// Seeded synthetic graphs in CSR form. All three are undirected (every edge is stored in both
+// directions), so any vertex in the goal's component is a solvable start.
+final class GraphGenerators {
+    private GraphGenerators() {
+    }
+
+    // A generated graph plus a fixed goal, the heuristics towards that goal and query starts.
+    static final class Instance {
+        final int[] offsets;
+        final int[] targets;
+        final double[] costs;
+        final double[] heuristics;
+        final int goal;
+        final int[] starts; // random vertices that can reach the goal
+
+        Instance(int[] offsets, int[] targets, double[] costs, double[] heuristics, int goal, int startCount, long seed) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.costs = costs;
+            this.heuristics = heuristics;
+            this.goal = goal;
+            this.starts = sampleComponent(offsets, targets, goal, startCount, new Random(seed));
+        }
+
+        int vertexCount() {
+            return heuristics.length;
+        }
+    }
+
+    static Instance generate(String kind, int n, long seed) {
+        switch (kind) {
+            case "geometric":
+                return geometric(n, seed);
+            case "grid":
+                return grid(n, 0.25, seed);
+            case "scalefree":
+                return scaleFree(n, 3, seed);
+            default:
+                throw new IllegalArgumentException("Unknown graph kind " + kind);
+        }
+    }
+
+    // Random geometric graph: n points in the unit square, joined when closer than a radius
+    // chosen for an average degree of about 6. Costs are the Euclidean lengths, and h is the
+    // straight-line distance to the goal, which is consistent.
+    static Instance geometric(int n, long seed) {
+        Random random = new Random(seed);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int v = 0; v < n; v++) {
+            x[v] = random.nextDouble();
+            y[v] = random.nextDouble();
+        }
+        double radius = Math.sqrt(6.0 / (Math.PI * n));
+        int cells = Math.max(1, (int) (1 / radius));
+        // bucket the points into radius-sized cells so only neighbouring cells are compared
+        int[] cellStart = new int[cells * cells + 1];
+        int[] cellOf = new int[n];
+        for (int v = 0; v < n; v++) {
+            cellOf[v] = Math.min(cells - 1, (int) (x[v] * cells)) * cells + Math.min(cells - 1, (int) (y[v] * cells));
+            cellStart[cellOf[v] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] next = Arrays.copyOf(cellStart, cells * cells);
+        int[] byCell = new int[n];
+        for (int v = 0; v < n; v++) {
+            byCell[next[cellOf[v]]++] = v;
+        }
+
+        EdgeList edges = new EdgeList(n);
+        for (int v = 0; v < n; v++) {
+            int cx = cellOf[v] / cells;
+            int cy = cellOf[v] % cells;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int nx = cx + dx;
+                    int ny = cy + dy;
+                    if (nx < 0 || ny < 0 || nx >= cells || ny >= cells) {
+                        continue;
+                    }
+                    int c = nx * cells + ny;
+                    for (int i = cellStart[c]; i < cellStart[c + 1]; i++) {
+                        int u = byCell[i];
+                        double d = Math.hypot(x[v] - x[u], y[v] - y[u]);
+                        if (u > v && d <= radius) {
+                            edges.addBoth(v, u, d);
+                        }
+                    }
+                }
+            }
+        }
+        int goal = random.nextInt(n);
+        double[] heuristics = new double[n];
+        for (int v = 0; v < n; v++) {
+            heuristics[v] = Math.hypot(x[v] - x[goal], y[v] - y[goal]);
+        }
+        return edges.toInstance(heuristics, goal, seed);
+    }
+
+    // Square 4-connected grid with a fraction of blocked cells. Unit costs, Manhattan h.
+    static Instance grid(int n, double obstacles, long seed) {
+        Random random = new Random(seed);
+        int side = Math.max(2, (int) Math.sqrt(n));
+        int cells = side * side;
+        boolean[] blocked = new boolean[cells];
+        for (int v = 0; v < cells; v++) {
+            blocked[v] = random.nextDouble() < obstacles;
+        }
+        int goal = cells - 1;
+        blocked[goal] = false;
+
+        EdgeList edges = new EdgeList(cells);
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int v = r * side + c;
+                if (blocked[v]) {
+                    continue;
+                }
+                if (c + 1 < side && !blocked[v + 1]) {
+                    edges.addBoth(v, v + 1, 1);
+                }
+                if (r + 1 < side && !blocked[v + side]) {
+                    edges.addBoth(v, v + side, 1);
+                }
+            }
+        }
+        double[] heuristics = new double[cells];
+        for (int v = 0; v < cells; v++) {
+            heuristics[v] = Math.abs(v / side - goal / side) + Math.abs(v % side - goal % side);
+        }
+        return edges.toInstance(heuristics, goal, seed);
+    }
+
+    // Barabasi-Albert preferential attachment: each new vertex links to m existing ones chosen
+    // proportionally to their degree. Random costs in [1, 10) and no geometry, so h is 0.
+    static Instance scaleFree(int n, int m, long seed) {
+        Random random = new Random(seed);
+        EdgeList edges = new EdgeList(n);
+        int[] endpoints = new int[2 * m * n + 2]; // every edge end once, for degree-weighted sampling
+        int endpointCount = 0;
+        endpoints[endpointCount++] = 0;
+        for (int v = 1; v < n; v++) {
+            for (int k = 0; k < Math.min(m, v); k++) {
+                int u = endpoints[random.nextInt(endpointCount)];
+                edges.addBoth(v, u, 1 + 9 * random.nextDouble());
+                endpoints[endpointCount++] = u;
+                endpoints[endpointCount++] = v;
+            }
+        }
+        return edges.toInstance(new double[n], random.nextInt(n), seed);
+    }
+
+    // Up to count random vertices from the goal's component, found by breadth-first search.
+    static int[] sampleComponent(int[] offsets, int[] targets, int goal, int count, Random random) {
+        int n = offsets.length - 1;
+        boolean[] seen = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = goal;
+        seen[goal] = true;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (!seen[targets[e]]) {
+                    seen[targets[e]] = true;
+                    queue[tail++] = targets[e];
+                }
+            }
+        }
+        int[] starts = new int[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = queue[random.nextInt(tail)];
+        }
+        return starts;
+    }
+
+    // Growable edge arrays that turn into CSR with a counting sort by source.
+    private static final class EdgeList {
+        private final int n;
+        private int[] from = new int[1024];
+        private int[] to = new int[1024];
+        private double[] cost = new double[1024];
+        private int size;
+
+        EdgeList(int n) {
+            this.n = n;
+        }
+
+        void addBoth(int a, int b, double c) {
+            add(a, b, c);
+            add(b, a, c);
+        }
+
+        private void add(int a, int b, double c) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                cost = Arrays.copyOf(cost, size * 2);
+            }
+            from[size] = a;
+            to[size] = b;
+            cost[size] = c;
+            size++;
+        }
+
+        Instance toInstance(double[] heuristics, int goal, long seed) {
+            int[] offsets = new int[n + 1];
+            for (int e = 0; e < size; e++) {
+                offsets[from[e] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] next = Arrays.copyOf(offsets, n);
+            int[] targets = new int[size];
+            double[] costs = new double[size];
+            for (int e = 0; e < size; e++) {
+                int slot = next[from[e]]++;
+                targets[slot] = to[e];
+                costs[slot] = cost[e];
+            }
+            return new Instance(offsets, targets, costs, heuristics, goal, 1024, seed);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package mllab.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+// Answers that survive between queries on the object graphs. cachedAStar repeats
+// AStarAlgorithm.aStar queries behind its PathCache, so after the first pass over the starts
+// every call is a hit. replan re-costs one edge of the current shortest path of an AStarGraph
+// IncrementalPlanner (LPA*) and repairs the path; aStarAfterEdit makes the same edit and
+// searches from scratch, for comparison.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class GraphUpdateBenchmark {
+    @Param({"geometric", "grid", "scalefree"})
+    public String kind;
+
+    @Param({"1000", "100000"})
+    public int vertices;
+
+    private Object[] nodes; // AStarAlgorithm Node per vertex
+    private Object[] graphNodes; // AStarGraph.Node per vertex
+    private Object planner;
+    private int[] starts;
+    private int goal;
+    private int next;
+    private int from; // the edited edge, from the middle of the first start's shortest path
+    private int to;
+    private double cost;
+    private boolean raised;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        GraphGenerators.Instance instance = GraphGenerators.generate(kind, vertices, 42);
+        int n = instance.vertexCount();
+        nodes = new Object[n];
+        graphNodes = new Object[n];
+        for (int v = 0; v < n; v++) {
+            nodes[v] = (Object) Targets.NODE.invokeExact(String.valueOf(v), instance.heuristics[v]);
+            graphNodes[v] = (Object) Targets.GRAPH_NODE.invokeExact((char) v, instance.heuristics[v]);
+        }
+        for (int v = 0; v < n; v++) {
+            for (int e = instance.offsets[v]; e < instance.offsets[v + 1]; e++) {
+                Object edge = (Object) Targets.EDGE.invokeExact(nodes[instance.targets[e]], instance.costs[e]);
+                Targets.ADD_EDGE.invokeExact(nodes[v], edge);
+                Targets.ADD_NEIGHBOR.invokeExact(graphNodes[v], graphNodes[instance.targets[e]], instance.costs[e]);
+            }
+        }
+        starts = instance.starts;
+        goal = instance.goal;
+
+        Object graph = (Object) Targets.CSR_GRAPH.invokeExact(instance.offsets, instance.targets, instance.costs,
+                instance.heuristics, (String[]) null);
+        int[] path = (int[]) Targets.CSR_A_STAR.invokeExact(graph, starts[0], goal, false);
+        int middle = Math.max(0, path.length / 2 - 1);
+        from = path[middle];
+        to = path[Math.min(middle + 1, path.length - 1)];
+        for (int e = instance.offsets[from]; e < instance.offsets[from + 1]; e++) {
+            if (instance.targets[e] == to) {
+                cost = instance.costs[e];
+            }
+        }
+        planner = (Object) Targets.PLANNER.invokeExact(graphNodes[starts[0]], graphNodes[goal]);
+        List<?> unused = (List<?>) Targets.REPLAN.invokeExact(planner);
+
+        Targets.ENABLE_PATH_CACHE.invokeExact(starts.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        Targets.DISABLE_PATH_CACHE.invokeExact();
+    }
+
+    @Benchmark
+    public List<?> cachedAStar() throws Throwable {
+        next = (next + 1) & (starts.length - 1);
+        return (List<?>) Targets.NODE_A_STAR.invokeExact(nodes[starts[next]], nodes[goal]);
+    }
+
+    // Alternately raises the edge to ten times its cost, which usually moves the path off it, and
+    // restores it.
+    private double nextCost() {
+        raised = !raised;
+        return raised ? cost * 10 : cost;
+    }
+
+    @Benchmark
+    public List<?> replan() throws Throwable {
+        Targets.UPDATE_EDGE.invokeExact(planner, graphNodes[from], graphNodes[to], nextCost());
+        return (List<?>) Targets.REPLAN.invokeExact(planner);
+    }
+
+    @Benchmark
+    public List<?> aStarAfterEdit() throws Throwable {
+        Targets.ADD_NEIGHBOR.invokeExact(graphNodes[from], graphNodes[to], nextCost());
+        return (List<?>) Targets.GRAPH_A_STAR.invokeExact(graphNodes[starts[0]], graphNodes[goal]);
+    }
+}
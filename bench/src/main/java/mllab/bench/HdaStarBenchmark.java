@@ -0,0 +1,45 @@
+package mllab.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+// HdaStarSolver on the IdaStarBenchmark instances with a given number of workers. One worker is
+// plain A* with the hand-over machinery on top; compare the thread counts against it for the
+// speed-up, and against IdaStarBenchmark for the memory-bound alternative.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class HdaStarBenchmark {
+    @Param({"3", "4"})
+    public int size;
+
+    @Param({"40", "80"})
+    public int walkLength;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Object solver;
+    private int[][][] instances;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Random random = new Random(42);
+        instances = new int[16][][];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = GameGenerators.puzzle(size, walkLength, random);
+        }
+        solver = (Object) Targets.HDA_STAR.invokeExact(threads);
+    }
+
+    @Benchmark
+    public String solve() throws Throwable {
+        next = (next + 1) & (instances.length - 1);
+        return (String) Targets.HDA_STAR_SOLVE.invokeExact(solver, instances[next]);
+    }
+}
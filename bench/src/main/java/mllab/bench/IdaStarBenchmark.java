@@ -0,0 +1,42 @@
+package mllab.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+// IdaStarSolver (Manhattan distance plus linear conflicts) on random solvable 8- and 15-puzzle
+// instances. IDA* keeps no open or closed set, so unlike Asearch it handles the longer walks;
+// on 4x4 a walk of 80 gives solutions of about 40 moves.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdaStarBenchmark {
+    @Param({"3", "4"})
+    public int size;
+
+    @Param({"40", "80"})
+    public int walkLength;
+
+    private Object solver;
+    private int[][][] instances;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Random random = new Random(42);
+        instances = new int[16][][];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = GameGenerators.puzzle(size, walkLength, random);
+        }
+        solver = (Object) Targets.IDA_STAR.invokeExact(size);
+    }
+
+    @Benchmark
+    public String solve() throws Throwable {
+        next = (next + 1) & (instances.length - 1);
+        return (String) Targets.IDA_STAR_SOLVE.invokeExact(solver, instances[next]);
+    }
+}
@@ -0,0 +1,49 @@
+package mllab.bench;
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+// MctsPlayer choosing the third move of a 15x15 five-in-a-row game (two stones at the center)
+// with a fixed number of playouts instead of a time budget, so every invocation does the same
+// work and the thread counts can be compared on time per move. Each invocation starts from a
+// fresh tree.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MctsBenchmark {
+    @Param({"15"})
+    public int size;
+
+    @Param({"5"})
+    public int k;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"10000"})
+    public long playouts;
+
+    private Object player;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        player = (Object) Targets.MCTS.invokeExact(size, k, threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        Targets.MCTS_CLOSE.invokeExact(player);
+    }
+
+    @Benchmark
+    public int bestMove() throws Throwable {
+        int center = size / 2 * size + size / 2;
+        Targets.MCTS_RESET.invokeExact(player);
+        Targets.MCTS_PLAY.invokeExact(player, center);
+        Targets.MCTS_PLAY.invokeExact(player, center + 1);
+        return (int) Targets.MCTS_BEST_MOVE.invokeExact(player, Long.MAX_VALUE, playouts);
+    }
+}
@@ -0,0 +1,72 @@
+package mllab.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+// The object-graph searches: AStarAlgorithm.aStar on Node/Edge and AStarGraph.aStar on its
+// map-based Node, over the same generated graphs as CsrGraphBenchmark. Object graphs cost far
+// more memory per edge, so the default sizes stop at 10^5 vertices. anytimeAStarAlgorithm runs
+// AStarAlgorithm.anytimeAStar with the same expansion budget as CsrGraphBenchmark.anytime; its
+// compiled graph is built by the first call and reused after that.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class NodeGraphBenchmark {
+    @Param({"geometric", "grid", "scalefree"})
+    public String kind;
+
+    @Param({"1000", "100000"})
+    public int vertices;
+
+    private Object[] nodes; // AStarAlgorithm Node per vertex
+    private Object[] graphNodes; // AStarGraph.Node per vertex
+    private int[] starts;
+    private int goal;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        GraphGenerators.Instance instance = GraphGenerators.generate(kind, vertices, 42);
+        int n = instance.vertexCount();
+        nodes = new Object[n];
+        graphNodes = new Object[n];
+        for (int v = 0; v < n; v++) {
+            nodes[v] = (Object) Targets.NODE.invokeExact(String.valueOf(v), instance.heuristics[v]);
+            graphNodes[v] = (Object) Targets.GRAPH_NODE.invokeExact((char) v, instance.heuristics[v]);
+        }
+        for (int v = 0; v < n; v++) {
+            for (int e = instance.offsets[v]; e < instance.offsets[v + 1]; e++) {
+                Object edge = (Object) Targets.EDGE.invokeExact(nodes[instance.targets[e]], instance.costs[e]);
+                Targets.ADD_EDGE.invokeExact(nodes[v], edge);
+                Targets.ADD_NEIGHBOR.invokeExact(graphNodes[v], graphNodes[instance.targets[e]], instance.costs[e]);
+            }
+        }
+        starts = instance.starts;
+        goal = instance.goal;
+    }
+
+    private int nextStart() {
+        next = (next + 1) & (starts.length - 1);
+        return starts[next];
+    }
+
+    @Benchmark
+    public List<?> aStarAlgorithm() throws Throwable {
+        return (List<?>) Targets.NODE_A_STAR.invokeExact(nodes[nextStart()], nodes[goal]);
+    }
+
+    @Benchmark
+    public Object anytimeAStarAlgorithm() throws Throwable {
+        return (Object) Targets.NODE_ANYTIME_A_STAR.invokeExact(nodes[nextStart()], nodes[goal],
+                CsrGraphBenchmark.ANYTIME_WEIGHT, Long.MAX_VALUE, CsrGraphBenchmark.ANYTIME_EXPANSIONS);
+    }
+
+    @Benchmark
+    public List<?> aStarGraph() throws Throwable {
+        return (List<?>) Targets.GRAPH_A_STAR.invokeExact(graphNodes[nextStart()], graphNodes[goal]);
+    }
+}
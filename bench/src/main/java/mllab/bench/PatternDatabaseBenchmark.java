@@ -0,0 +1,48 @@
+package mllab.bench;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+// IdaStarSolver with the default additive pattern database on the IdaStarBenchmark instances.
+// Setup builds the tables (about 40 seconds for the 4x4 6-6-3 split), writes them to a
+// temporary file and maps it back, so the solver reads the tables the way a player that starts
+// from a prebuilt file does.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class PatternDatabaseBenchmark {
+    @Param({"3", "4"})
+    public int size;
+
+    @Param({"40", "80"})
+    public int walkLength;
+
+    private Object solver;
+    private int[][][] instances;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Random random = new Random(42);
+        instances = new int[16][][];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = GameGenerators.puzzle(size, walkLength, random);
+        }
+        Path file = Files.createTempFile("patterns", ".pdb");
+        file.toFile().deleteOnExit(); // stays mapped until the fork exits
+        Object built = (Object) Targets.PDB_BUILD.invokeExact(size, (int[][]) Targets.PDB_GROUPS.invokeExact(size));
+        Targets.PDB_WRITE.invokeExact(built, file);
+        solver = (Object) Targets.IDA_STAR_WITH.invokeExact((Object) Targets.PDB_MAP.invokeExact(file));
+    }
+
+    @Benchmark
+    public String solve() throws Throwable {
+        next = (next + 1) & (instances.length - 1);
+        return (String) Targets.IDA_STAR_SOLVE.invokeExact(solver, instances[next]);
+    }
+}
@@ -0,0 +1,76 @@
+package mllab.bench;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+// One PuzzleBatch run over a generated input file: 512 8-puzzles and 64 15-puzzles from walks of
+// 40 moves, and 64 15-puzzles with two tiles swapped, which the parity check rejects. The time of
+// a run is the measure, for the given number of workers.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PuzzleBatchBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Path input;
+    private Path output;
+    private Object batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Random random = new Random(42);
+        List<String> lines = new ArrayList<>();
+        lines.add("# generated by PuzzleBatchBenchmark");
+        for (int i = 0; i < 512; i++) {
+            lines.add(line(GameGenerators.puzzle(3, 40, random)));
+        }
+        for (int i = 0; i < 128; i++) {
+            int[][] puzzle = GameGenerators.puzzle(4, 40, random);
+            if (i % 2 == 1) {
+                swapTiles(puzzle);
+            }
+            lines.add(line(puzzle));
+        }
+        input = Files.createTempFile("puzzles", ".txt");
+        output = Files.createTempFile("solutions", ".txt");
+        Files.write(input, lines);
+        batch = (Object) Targets.PUZZLE_BATCH.invokeExact(threads, (Object) null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+
+    // Swaps the first two tiles that are not the blank, which flips the permutation parity.
+    private static void swapTiles(int[][] puzzle) {
+        int n = puzzle.length;
+        int first = puzzle[0][0] != 0 ? 0 : 1;
+        int second = puzzle[(first + 1) / n][(first + 1) % n] != 0 ? first + 1 : first + 2;
+        int tile = puzzle[first / n][first % n];
+        puzzle[first / n][first % n] = puzzle[second / n][second % n];
+        puzzle[second / n][second % n] = tile;
+    }
+
+    private static String line(int[][] puzzle) {
+        StringBuilder line = new StringBuilder();
+        for (int[] row : puzzle) {
+            for (int tile : row) {
+                line.append(line.length() == 0 ? "" : " ").append(tile);
+            }
+        }
+        return line.toString();
+    }
+
+    @Benchmark
+    public void run() throws Throwable {
+        Targets.PUZZLE_BATCH_RUN.invokeExact(batch, input, output);
+    }
+}
@@ -0,0 +1,72 @@
+package mllab.bench;
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+// The CsrGraph routing extras: A* guided by ALT landmarks instead of the per-vertex heuristics,
+// and BatchRouter's many-to-many distance matrix. Both need a precomputation per graph (the
+// landmark tables, the reverse graph), which is done in setup and not measured.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class RoutingBenchmark {
+    @Param({"geometric", "grid", "scalefree"})
+    public String kind;
+
+    @Param({"1000", "100000", "1000000"})
+    public int vertices;
+
+    @Param({"16"})
+    public int landmarks;
+
+    @Param({"16"})
+    public int batch; // sources and targets per matrix
+
+    private Object graph;
+    private Object alt;
+    private Object router;
+    private int[] starts;
+    private int goal;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        GraphGenerators.Instance instance = GraphGenerators.generate(kind, vertices, 42);
+        graph = (Object) Targets.CSR_GRAPH.invokeExact(instance.offsets, instance.targets, instance.costs,
+                instance.heuristics, (String[]) null);
+        alt = (Object) Targets.LANDMARKS.invokeExact(graph, landmarks);
+        router = (Object) Targets.BATCH_ROUTER.invokeExact(graph);
+        starts = instance.starts;
+        goal = instance.goal;
+    }
+
+    private int nextStart() {
+        next = (next + 1) & (starts.length - 1);
+        return starts[next];
+    }
+
+    @Benchmark
+    public int[] alt() throws Throwable {
+        return (int[]) Targets.CSR_A_STAR_WITH.invokeExact(graph, nextStart(), goal, alt, false);
+    }
+
+    @Benchmark
+    public int[] altBidirectional() throws Throwable {
+        return (int[]) Targets.CSR_A_STAR_WITH.invokeExact(graph, nextStart(), goal, alt, true);
+    }
+
+    // batch x batch matrix between consecutive runs of the sampled starts, distances only.
+    @Benchmark
+    public Object manyToMany() throws Throwable {
+        int[] sources = new int[batch];
+        int[] targets = new int[batch];
+        for (int i = 0; i < batch; i++) {
+            sources[i] = nextStart();
+            targets[i] = nextStart();
+        }
+        return (Object) Targets.MANY_TO_MANY.invokeExact(router, sources, targets, false);
+    }
+}
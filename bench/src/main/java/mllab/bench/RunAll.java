@@ -0,0 +1,21 @@
+package mllab.bench;
+
+import org.openjdk.jmh.profile.*;
+import org.openjdk.jmh.results.format.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+// Entry point of benchmarks.jar: takes the usual JMH command line (benchmark regex, -p, -f, -wi,
+// ...) and always attaches the GC profiler, so every result also carries its allocation rate.
+public class RunAll {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
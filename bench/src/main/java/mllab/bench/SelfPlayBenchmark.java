@@ -0,0 +1,36 @@
+package mllab.bench;
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+// SelfPlay with GAMES concurrent GameSession games per invocation, after two random opening
+// moves each, reported in games per millisecond. On 3x3 every move is a PerfectPlayTable lookup;
+// on 4x4 the pooled BitboardEngines search searchDepth moves ahead, k = n in both.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SelfPlayBenchmark {
+    static final int GAMES = 1024;
+
+    @Param({"3", "4"})
+    public int n;
+
+    @Param({"4"})
+    public int searchDepth;
+
+    private Object selfPlay;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        selfPlay = (Object) Targets.SELF_PLAY.invokeExact(n, n, searchDepth, 2);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public void games() throws Throwable {
+        Targets.SELF_PLAY_RUN.invokeExact(selfPlay, GAMES);
+    }
+}
@@ -0,0 +1,172 @@
+package mllab.bench;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+
+// The programs under test live in the default package at the repository root, and code in a
+// named package cannot refer to those classes. JMH insists on a named package for benchmarks, so
+// they call the programs through method handles resolved once here. The handles are static final,
+// so the JIT inlines through them and the indirection does not show up in the measurements.
+//
+// Every handle is adapted to Object for the root classes, and call sites use invokeExact.
+final class Targets {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // (int[] offsets, int[] targets, double[] costs, double[] heuristics, String[] names) -> CsrGraph
+    static final MethodHandle CSR_GRAPH = constructor("CsrGraph",
+            int[].class, int[].class, double[].class, double[].class, String[].class);
+    // (CsrGraph, int start, int goal, boolean bidirectional) -> int[]
+    static final MethodHandle CSR_A_STAR = method("CsrGraph", "aStar", int[].class, int.class, int.class, boolean.class);
+    // (CsrGraph, int start, int goal, double weight, long budgetNanos, long maxExpansions) -> AnytimeResult
+    static final MethodHandle CSR_ANYTIME_A_STAR = method("CsrGraph", "anytimeAStar", type("AnytimeResult"),
+            int.class, int.class, double.class, long.class, long.class);
+    // (CsrGraph, int start, int goal, boolean bidirectional, SearchListener) -> int[], and
+    // SearchMetrics() to collect the statistics
+    static final MethodHandle CSR_A_STAR_LISTENED = method("CsrGraph", "aStar", int[].class, int.class, int.class,
+            boolean.class, type("SearchListener"));
+    static final MethodHandle SEARCH_METRICS = constructor("SearchMetrics");
+    // (CsrGraph, int start, int goal, Heuristic, boolean bidirectional) -> int[]
+    static final MethodHandle CSR_A_STAR_WITH = method("CsrGraph", "aStar", int[].class, int.class, int.class,
+            type("Heuristic"), boolean.class);
+    // Landmarks.build(CsrGraph, int k) -> ALT heuristic for CSR_A_STAR_WITH
+    static final MethodHandle LANDMARKS = method("Landmarks", "build", type("Landmarks"), type("CsrGraph"), int.class);
+    // BatchRouter(CsrGraph), manyToMany(int[] sources, int[] targets, boolean withPaths) -> DistanceMatrix
+    static final MethodHandle BATCH_ROUTER = constructor("BatchRouter", type("CsrGraph"));
+    static final MethodHandle MANY_TO_MANY = method("BatchRouter", "manyToMany", type("DistanceMatrix"),
+            int[].class, int[].class, boolean.class);
+
+    // AStarAlgorithm: Node(String, double), Edge(Node, double), Node.addNeighbor(Edge), aStar(Node, Node)
+    static final MethodHandle NODE = constructor("Node", String.class, double.class);
+    static final MethodHandle EDGE = constructor("Edge", type("Node"), double.class);
+    static final MethodHandle ADD_EDGE = method("Node", "addNeighbor", void.class, type("Edge"));
+    static final MethodHandle NODE_A_STAR = method("AStarAlgorithm", "aStar", java.util.List.class, type("Node"), type("Node"));
+    // AStarAlgorithm.anytimeAStar(Node start, Node goal, double weight, long budgetNanos, long maxExpansions)
+    static final MethodHandle NODE_ANYTIME_A_STAR = method("AStarAlgorithm", "anytimeAStar", type("AnytimeResult"),
+            type("Node"), type("Node"), double.class, long.class, long.class);
+    // AStarAlgorithm.enablePathCache(int maxEntries), disablePathCache()
+    static final MethodHandle ENABLE_PATH_CACHE = method("AStarAlgorithm", "enablePathCache", void.class, int.class);
+    static final MethodHandle DISABLE_PATH_CACHE = method("AStarAlgorithm", "disablePathCache", void.class);
+
+    // AStarGraph: Node(char, double), Node.addNeighbor(Node, double), aStar(Node, Node)
+    static final MethodHandle GRAPH_NODE = constructor("AStarGraph$Node", char.class, double.class);
+    static final MethodHandle ADD_NEIGHBOR = method("AStarGraph$Node", "addNeighbor", void.class, type("AStarGraph$Node"), double.class);
+    static final MethodHandle GRAPH_A_STAR = method("AStarGraph", "aStar", java.util.List.class, type("AStarGraph$Node"), type("AStarGraph$Node"));
+    // AStarGraph.IncrementalPlanner (LPA*): IncrementalPlanner(Node start, Node goal),
+    // updateEdge(Node from, Node to, double cost), replan() -> path
+    static final MethodHandle PLANNER = constructor("AStarGraph$IncrementalPlanner", type("AStarGraph$Node"),
+            type("AStarGraph$Node"));
+    static final MethodHandle UPDATE_EDGE = method("AStarGraph$IncrementalPlanner", "updateEdge", void.class,
+            type("AStarGraph$Node"), type("AStarGraph$Node"), double.class);
+    static final MethodHandle REPLAN = method("AStarGraph$IncrementalPlanner", "replan", java.util.List.class);
+
+    // Asearch.solve(int[][]) -> goal PuzzleNode or null
+    static final MethodHandle PUZZLE_SOLVE = method("Asearch", "solve", type("PuzzleNode"), int[][].class);
+
+    // IdaStarSolver(int n), solve(int[][]) -> blank moves
+    static final MethodHandle IDA_STAR = constructor("IdaStarSolver", int.class);
+    // IdaStarSolver(PatternDatabase)
+    static final MethodHandle IDA_STAR_WITH = constructor("IdaStarSolver", type("PatternDatabase"));
+    static final MethodHandle IDA_STAR_SOLVE = method("IdaStarSolver", "solve", String.class, int[][].class);
+
+    // HdaStarSolver(int threads), solve(int[][]) -> blank moves
+    static final MethodHandle HDA_STAR = constructor("HdaStarSolver", int.class);
+    static final MethodHandle HDA_STAR_SOLVE = method("HdaStarSolver", "solve", String.class, int[][].class);
+
+    // PatternDatabase: defaultGroups(int n), build(int n, int[][] groups), write(Path), map(Path)
+    static final MethodHandle PDB_GROUPS = method("PatternDatabase", "defaultGroups", int[][].class, int.class);
+    static final MethodHandle PDB_BUILD = method("PatternDatabase", "build", type("PatternDatabase"),
+            int.class, int[][].class);
+    static final MethodHandle PDB_WRITE = method("PatternDatabase", "write", void.class, java.nio.file.Path.class);
+    static final MethodHandle PDB_MAP = method("PatternDatabase", "map", type("PatternDatabase"),
+            java.nio.file.Path.class);
+
+    // PuzzleBatch(int threads, PatternDatabase or null), run(Path input, Path output)
+    static final MethodHandle PUZZLE_BATCH = constructor("PuzzleBatch", int.class, type("PatternDatabase"));
+    static final MethodHandle PUZZLE_BATCH_RUN = method("PuzzleBatch", "run", void.class,
+            java.nio.file.Path.class, java.nio.file.Path.class);
+
+    // ExternalBfs(Path dir, int n, int[] pattern, int chunkStates), run() -> states per layer
+    static final MethodHandle EXTERNAL_BFS = constructor("ExternalBfs", java.nio.file.Path.class, int.class,
+            int[].class, int.class);
+    static final MethodHandle EXTERNAL_BFS_RUN = method("ExternalBfs", "run", java.util.List.class);
+
+    // TicTacToe: Board(char[][], int), minimax(Board, boolean computerTurn) -> score
+    static final MethodHandle BOARD = constructor("Board", char[][].class, int.class);
+    static final MethodHandle MINIMAX = method("TicTacToe", "minimax", int.class, type("Board"), boolean.class);
+    // TicTacToe.computerCell(char[][]) -> cell picked by the bitboard engine
+    static final MethodHandle COMPUTER_CELL = method("TicTacToe", "computerCell", int.class, char[][].class);
+
+    // PerfectPlayTable: build(), write(Path), map(Path), bestMove(char[][]) -> cell
+    static final MethodHandle PERFECT_BUILD = method("PerfectPlayTable", "build", type("PerfectPlayTable"));
+    static final MethodHandle PERFECT_WRITE = method("PerfectPlayTable", "write", void.class, java.nio.file.Path.class);
+    static final MethodHandle PERFECT_MAP = method("PerfectPlayTable", "map", type("PerfectPlayTable"),
+            java.nio.file.Path.class);
+    static final MethodHandle PERFECT_BEST_MOVE = method("PerfectPlayTable", "bestMove", int.class, char[][].class);
+
+    // SelfPlay(int n, int k, int searchDepth, int randomPlies), run(int games)
+    static final MethodHandle SELF_PLAY = constructor("SelfPlay", int.class, int.class, int.class, int.class);
+    static final MethodHandle SELF_PLAY_RUN = method("SelfPlay", "run", void.class, int.class);
+
+    // MctsPlayer(int n, int k, int threads), reset(), play(int cell), bestMove(long budgetNanos, long maxPlayouts),
+    // close()
+    static final MethodHandle MCTS = constructor("MctsPlayer", int.class, int.class, int.class);
+    static final MethodHandle MCTS_RESET = method("MctsPlayer", "reset", void.class);
+    static final MethodHandle MCTS_PLAY = method("MctsPlayer", "play", void.class, int.class);
+    static final MethodHandle MCTS_BEST_MOVE = method("MctsPlayer", "bestMove", int.class, long.class, long.class);
+    static final MethodHandle MCTS_CLOSE = method("MctsPlayer", "close", void.class);
+
+    private Targets() {
+    }
+
+    static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Root class " + name + " is not on the class path", e);
+        }
+    }
+
+    private static MethodHandle constructor(String owner, Class<?>... parameters) {
+        try {
+            Constructor<?> constructor = type(owner).getDeclaredConstructor(parameters);
+            constructor.setAccessible(true);
+            return erase(LOOKUP.unreflectConstructor(constructor));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No constructor " + owner + " with the expected parameters", e);
+        }
+    }
+
+    private static MethodHandle method(String owner, String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            Method method = type(owner).getDeclaredMethod(name, parameters);
+            method.setAccessible(true);
+            if (method.getReturnType() != returnType) {
+                throw new IllegalStateException(owner + "." + name + " returns " + method.getReturnType());
+            }
+            return erase(LOOKUP.unreflect(method));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No method " + owner + "." + name + " with the expected parameters", e);
+        }
+    }
+
+    // Replaces root-package types in the signature by Object so benchmark code can name them.
+    private static MethodHandle erase(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (isRootType(type.parameterType(i))) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (isRootType(type.returnType())) {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+
+    private static boolean isRootType(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        return !type.isPrimitive() && type.getPackageName().isEmpty();
+    }
+}
@@ -0,0 +1,60 @@
+package mllab.bench;
+
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+// TicTacToe.minimax from random undecided positions with the given number of moves played.
+// The empty board is the full game tree. engine is the bitboard search behind computerMove on the
+// same positions; its transposition table stays warm across calls, as it does during a game.
+// table is the PerfectPlayTable lookup, from a table written to a temporary file and mapped.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicTacToeBenchmark {
+    @Param({"0", "1", "3", "5"})
+    public int moves;
+
+    private Object[] boards;
+    private char[][][] positions;
+    private Object table;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Random random = new Random(42);
+        boards = new Object[16];
+        positions = new char[boards.length][][];
+        for (int i = 0; i < boards.length; i++) {
+            positions[i] = GameGenerators.position(moves, random);
+            boards[i] = (Object) Targets.BOARD.invokeExact(positions[i], 0);
+        }
+        Path file = Files.createTempFile("tictactoe", ".table");
+        file.toFile().deleteOnExit(); // stays mapped until the fork exits
+        Targets.PERFECT_WRITE.invokeExact((Object) Targets.PERFECT_BUILD.invokeExact(), file);
+        table = (Object) Targets.PERFECT_MAP.invokeExact(file);
+    }
+
+    @Benchmark
+    public int minimax() throws Throwable {
+        next = (next + 1) & (boards.length - 1);
+        // 'x' moves first, so after an odd number of moves it is the computer's turn
+        return (int) Targets.MINIMAX.invokeExact(boards[next], moves % 2 == 1);
+    }
+
+    @Benchmark
+    public int engine() throws Throwable {
+        next = (next + 1) & (positions.length - 1);
+        return (int) Targets.COMPUTER_CELL.invokeExact(positions[next]);
+    }
+
+    @Benchmark
+    public int table() throws Throwable {
+        next = (next + 1) & (positions.length - 1);
+        return (int) Targets.PERFECT_BEST_MOVE.invokeExact(table, positions[next]);
+    }
+}
@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+// ARA* against Dijkstra on random geometric graphs: every result must cost no more than bound
+// times the optimum, and a run that finishes on its own must be optimal.
+class AnytimeAStarTest {
+    private static final int VERTICES = 500;
+
+    @Test
+    void costStaysWithinTheReportedBound() {
+        for (long seed = 1; seed <= 10; seed++) {
+            CsrGraph graph = randomGraph(new Random(seed), 0);
+            double[] optimal = graph.newContext().distancesFrom(0);
+            for (int goal = 1; goal < VERTICES; goal += 37) {
+                CsrGraph toGoal = randomGraph(new Random(seed), goal);
+                for (long expansions : new long[] {1, 10, 100, Long.MAX_VALUE}) {
+                    AnytimeResult<int[]> result = toGoal.anytimeAStar(0, goal, 3, Long.MAX_VALUE, expansions);
+                    String where = "seed " + seed + ", goal " + goal + ", " + expansions + " expansions";
+                    if (optimal[goal] == Double.POSITIVE_INFINITY) {
+                        assertEquals(0, result.path.length, where);
+                        continue;
+                    }
+                    if (result.path.length == 0) {
+                        assertFalse(result.complete, where); // only the budget may stop it without a path
+                        continue;
+                    }
+                    assertEquals(pathCost(toGoal, result.path), result.cost, 1e-9, where);
+                    assertTrue(result.cost >= optimal[goal] - 1e-9, where);
+                    assertTrue(result.cost <= result.bound * optimal[goal] + 1e-9, where);
+                    if (result.complete) {
+                        assertEquals(optimal[goal], result.cost, 1e-9, where);
+                        assertEquals(1, result.bound, 1e-9, where);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void nodeGraphWrapperFindsTheOptimumWithoutALimit() {
+        Node s = new Node("S", 0);
+        Node a = new Node("A", 0);
+        Node b = new Node("B", 0);
+        Node g = new Node("G", 0);
+        s.addNeighbor(new Edge(a, 1));
+        s.addNeighbor(new Edge(b, 4));
+        a.addNeighbor(new Edge(b, 1));
+        a.addNeighbor(new Edge(g, 6));
+        b.addNeighbor(new Edge(g, 1));
+        AnytimeResult<List<Node>> result = AStarAlgorithm.anytimeAStar(s, g, 3, Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(List.of(s, a, b, g), result.path);
+        assertEquals(3, result.cost, 1e-9);
+        assertTrue(result.complete);
+    }
+
+    // Points in the unit square, each with edges to a few random others costing at least their
+    // distance, and the straight-line distance to goal as a consistent heuristic.
+    private static CsrGraph randomGraph(Random random, int goal) {
+        double[] x = new double[VERTICES];
+        double[] y = new double[VERTICES];
+        for (int v = 0; v < VERTICES; v++) {
+            x[v] = random.nextDouble();
+            y[v] = random.nextDouble();
+        }
+        int degree = 4;
+        int[] offsets = new int[VERTICES + 1];
+        int[] targets = new int[VERTICES * degree];
+        double[] costs = new double[VERTICES * degree];
+        double[] heuristics = new double[VERTICES];
+        for (int v = 0; v < VERTICES; v++) {
+            offsets[v + 1] = offsets[v] + degree;
+            heuristics[v] = Math.hypot(x[v] - x[goal], y[v] - y[goal]);
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = random.nextInt(VERTICES);
+                targets[e] = w;
+                costs[e] = Math.hypot(x[v] - x[w], y[v] - y[w]) * (1 + random.nextDouble());
+            }
+        }
+        return new CsrGraph(offsets, targets, costs, heuristics, null);
+    }
+
+    private static double pathCost(CsrGraph graph, int[] path) {
+        double cost = 0;
+        for (int i = 1; i < path.length; i++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int e = graph.edgesBegin(path[i - 1]); e < graph.edgesBegin(path[i - 1] + 1); e++) {
+                if (graph.target(e) == path[i]) {
+                    best = Math.min(best, graph.cost(e));
+                }
+            }
+            cost += best;
+        }
+        return cost;
+    }
+}
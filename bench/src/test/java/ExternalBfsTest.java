@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// The whole 3x3 space from disk, with a run buffer small enough that every layer is split over
+// many sorted runs and merged back.
+class ExternalBfsTest {
+    // States at each distance from the goal with the blank in the corner, 181440 in all, and the
+    // empty layer that ends the run.
+    private static final long[] LAYERS_3X3 = {1, 2, 4, 8, 16, 20, 39, 62, 116, 152, 286, 396, 748, 1024, 1893, 2512,
+            4485, 5638, 9529, 10878, 16993, 17110, 23952, 20224, 24047, 15578, 14560, 6274, 3910, 760, 221, 2, 0};
+
+    @Test
+    void layersOf3x3(@TempDir Path dir) throws IOException {
+        List<Long> sizes = new ExternalBfs(dir, 3, new int[0], 1000).run();
+        assertEquals(181440, sizes.stream().mapToLong(Long::longValue).sum());
+        assertArrayEquals(LAYERS_3X3, sizes.stream().mapToLong(Long::longValue).toArray());
+        // a finished run is picked up from its progress file, not redone
+        assertEquals(sizes, new ExternalBfs(dir, 3, new int[0], 1000).run());
+
+        Random random = new Random(5);
+        IdaStarSolver solver = new IdaStarSolver(3);
+        for (int i = 0; i < 20; i++) {
+            int[][] board = Scrambles.scramble(3, 40, random);
+            assertEquals(solver.solve(board).length(), ExternalBfs.distance(dir, Asearch.pack(board)),
+                    Arrays.deepToString(board));
+        }
+    }
+
+    @Test
+    void patternDistancesNeverOverestimate(@TempDir Path dir) throws IOException {
+        int[] pattern = {1, 2, 3, 4};
+        ExternalBfs bfs = new ExternalBfs(dir, 3, pattern, 1000);
+        bfs.run();
+        Random random = new Random(6);
+        IdaStarSolver solver = new IdaStarSolver(3);
+        for (int i = 0; i < 20; i++) {
+            int[][] board = Scrambles.scramble(3, 40, random);
+            int[][] abstracted = new int[3][3];
+            for (int cell = 0; cell < 9; cell++) {
+                int tile = board[cell / 3][cell % 3];
+                abstracted[cell / 3][cell % 3] = tile == 0 || tile <= 4 ? tile : 5; // 5 is the "don't care" tile
+            }
+            int distance = ExternalBfs.distance(dir, Asearch.pack(abstracted));
+            String where = Arrays.deepToString(board);
+            assertTrue(distance >= 0, where);
+            assertTrue(distance <= solver.solve(board).length(), where);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+// HDA* against IDA* on scrambled boards, with more workers than cores so that workers park and
+// are woken often; a lost wake-up would hang the solve, which the timeout turns into a failure.
+class HdaStarSolverTest {
+    @Test
+    void matchesIdaStarOn3x3() {
+        assertTimeoutPreemptively(Duration.ofMinutes(2), () -> check(3, 30, 30));
+    }
+
+    @Test
+    void matchesIdaStarOn4x4() {
+        assertTimeoutPreemptively(Duration.ofMinutes(2), () -> check(4, 10, 30));
+    }
+
+    @Test
+    void solvedAndUnsolvableBoards() throws InterruptedException {
+        HdaStarSolver solver = new HdaStarSolver(3);
+        assertEquals("", solver.solve(Asearch.orderedGoal(3)));
+        int[][] board = Asearch.orderedGoal(3);
+        board[0][0] = 2;
+        board[0][1] = 1;
+        assertNull(solver.solve(board));
+    }
+
+    private static void check(int n, int boards, int steps) throws InterruptedException {
+        Random random = new Random(n);
+        IdaStarSolver oracle = new IdaStarSolver(n);
+        for (int threads = 1; threads <= 4; threads++) {
+            HdaStarSolver solver = new HdaStarSolver(threads);
+            for (int i = 0; i < boards; i++) {
+                int[][] board = Scrambles.scramble(n, steps, random);
+                String moves = solver.solve(board);
+                String where = threads + " threads, " + Arrays.deepToString(board);
+                assertNotNull(moves, where);
+                assertTrue(Scrambles.solves(board, moves), where);
+                assertEquals(oracle.solve(board).length(), moves.length(), where);
+            }
+        }
+    }
+}
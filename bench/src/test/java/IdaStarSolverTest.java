@@ -0,0 +1,39 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+// IDA* against the A* of Asearch on scrambled boards: both are optimal, so the solutions must be
+// equally long, and the IDA* moves must actually solve the board.
+class IdaStarSolverTest {
+    @Test
+    void matchesAStarOn3x3() {
+        checkAgainstAStar(3, 40, 30);
+    }
+
+    @Test
+    void matchesAStarOn4x4() {
+        checkAgainstAStar(4, 20, 24);
+    }
+
+    @Test
+    void unsolvableBoardHasNoSolution() {
+        int[][] board = Asearch.orderedGoal(3);
+        board[0][0] = 2;
+        board[0][1] = 1;
+        assertNull(new IdaStarSolver(3).solve(board));
+    }
+
+    private static void checkAgainstAStar(int n, int boards, int steps) {
+        Random random = new Random(n);
+        IdaStarSolver solver = new IdaStarSolver(n);
+        for (int i = 0; i < boards; i++) {
+            int[][] board = Scrambles.scramble(n, steps, random);
+            String moves = solver.solve(board);
+            String where = Arrays.deepToString(board);
+            assertNotNull(moves, where);
+            assertTrue(Scrambles.solves(board, moves), where);
+            assertEquals(Asearch.solve(board).g, moves.length(), where);
+        }
+    }
+}
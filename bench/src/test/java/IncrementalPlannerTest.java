@@ -0,0 +1,103 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+// LPA* against a plain Dijkstra oracle and against AStarGraph.aStar, on random graphs whose edges
+// keep being added, re-costed and cut between replans.
+class IncrementalPlannerTest {
+    private static final int NODES = 40;
+
+    @Test
+    void replanMatchesDijkstraAfterEveryEdit() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            double[] x = new double[NODES];
+            double[] y = new double[NODES];
+            List<AStarGraph.Node> nodes = randomGraph(random, x, y);
+            AStarGraph.Node start = nodes.get(0);
+            AStarGraph.Node goal = nodes.get(NODES - 1);
+            AStarGraph.IncrementalPlanner planner = new AStarGraph.IncrementalPlanner(start, goal);
+            assertEquals(dijkstra(nodes, start, goal), cost(nodes, planner.replan()), 1e-9, "seed " + seed);
+
+            for (int edit = 0; edit < 30; edit++) {
+                int from = random.nextInt(NODES);
+                int to = random.nextInt(NODES);
+                if (from == to) {
+                    continue;
+                }
+                // costs stay at or above the straight-line distance, so the heuristic stays consistent
+                double cost = random.nextInt(5) == 0 ? Double.POSITIVE_INFINITY
+                        : distance(x, y, from, to) * (1 + 2 * random.nextDouble());
+                planner.updateEdge(nodes.get(from), nodes.get(to), cost);
+                double expected = dijkstra(nodes, start, goal);
+                String where = "seed " + seed + ", edit " + edit;
+                assertEquals(expected, cost(nodes, planner.replan()), 1e-9, where);
+                assertEquals(expected, cost(nodes, AStarGraph.aStar(start, goal)), 1e-9, where);
+            }
+        }
+    }
+
+    // Nodes on random points with the straight-line distance to the last node as heuristic.
+    private static List<AStarGraph.Node> randomGraph(Random random, double[] x, double[] y) {
+        for (int v = 0; v < NODES; v++) {
+            x[v] = random.nextDouble() * 100;
+            y[v] = random.nextDouble() * 100;
+        }
+        List<AStarGraph.Node> nodes = new ArrayList<>();
+        for (int v = 0; v < NODES; v++) {
+            nodes.add(new AStarGraph.Node((char) ('0' + v), distance(x, y, v, NODES - 1)));
+        }
+        for (int v = 0; v < NODES; v++) {
+            for (int i = 0; i < 3; i++) {
+                int w = random.nextInt(NODES);
+                if (w != v) {
+                    nodes.get(v).addNeighbor(nodes.get(w), distance(x, y, v, w) * (1 + random.nextDouble()));
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static double distance(double[] x, double[] y, int a, int b) {
+        return Math.hypot(x[a] - x[b], y[a] - y[b]);
+    }
+
+    // Cost of a path of node names, infinite for no path.
+    private static double cost(List<AStarGraph.Node> nodes, List<Character> path) {
+        if (path == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double cost = 0;
+        for (int i = 1; i < path.size(); i++) {
+            AStarGraph.Node from = nodes.get(path.get(i - 1) - '0');
+            cost += from.neighbors.get(nodes.get(path.get(i) - '0'));
+        }
+        return cost;
+    }
+
+    private static double dijkstra(List<AStarGraph.Node> nodes, AStarGraph.Node start, AStarGraph.Node goal) {
+        Map<AStarGraph.Node, Double> distance = new HashMap<>();
+        PriorityQueue<Map.Entry<AStarGraph.Node, Double>> queue = new PriorityQueue<>(Map.Entry.comparingByValue());
+        distance.put(start, 0.0);
+        queue.add(Map.entry(start, 0.0));
+        while (!queue.isEmpty()) {
+            Map.Entry<AStarGraph.Node, Double> top = queue.poll();
+            AStarGraph.Node node = top.getKey();
+            if (top.getValue() > distance.get(node)) {
+                continue;
+            }
+            if (node == goal) {
+                return top.getValue();
+            }
+            for (Map.Entry<AStarGraph.Node, Double> edge : node.neighbors.entrySet()) {
+                double d = top.getValue() + edge.getValue();
+                if (d < distance.getOrDefault(edge.getKey(), Double.POSITIVE_INFINITY)) {
+                    distance.put(edge.getKey(), d);
+                    queue.add(Map.entry(edge.getKey(), d));
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,40 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class MctsPlayerTest {
+    // Budgets near Long.MAX_VALUE used to wrap the deadline into the past, so no playout ran.
+    @Test
+    void hugeBudgetStillSearches() throws InterruptedException {
+        try (MctsPlayer player = new MctsPlayer(9, 5, 3)) {
+            for (long budget : new long[] {Long.MAX_VALUE, Long.MAX_VALUE - 1, Long.MAX_VALUE / 2 + 1}) {
+                player.reset();
+                player.bestMove(budget, 1000);
+                assertTrue(player.playouts() >= 1000, budget + " ns: " + player.playouts() + " playouts");
+            }
+        }
+    }
+
+    @Test
+    void searchThreadsAreReusedAcrossMoves() throws InterruptedException {
+        try (MctsPlayer player = new MctsPlayer(9, 5, 4)) {
+            player.play(player.bestMove(Long.MAX_VALUE, 200));
+            int threads = Thread.activeCount();
+            for (int move = 0; move < 10 && !player.isOver(); move++) {
+                player.play(player.bestMove(Long.MAX_VALUE, 200));
+            }
+            assertTrue(Thread.activeCount() <= threads, Thread.activeCount() + " threads, was " + threads);
+        }
+    }
+
+    @Test
+    void completesALine() throws InterruptedException {
+        try (MctsPlayer player = new MctsPlayer(3, 3, 2)) {
+            player.play(0); // x
+            player.play(3); // o
+            player.play(1); // x
+            player.play(4); // o
+            assertEquals(2, player.bestMove(Long.MAX_VALUE, 100));
+        }
+    }
+}
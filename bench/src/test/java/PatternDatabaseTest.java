@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Pattern databases on 3x3, where a single group of all eight tiles is an exact distance table
+// and therefore an oracle for the additive split tables.
+class PatternDatabaseTest {
+    private static final int[][] ALL_TILES = {{1, 2, 3, 4, 5, 6, 7, 8}};
+    private static final PatternDatabase EXACT = PatternDatabase.build(3, ALL_TILES);
+    private static final PatternDatabase SPLIT = PatternDatabase.build(3, PatternDatabase.defaultGroups(3));
+
+    @Test
+    void singleGroupIsTheExactDistance() {
+        Random random = new Random(1);
+        IdaStarSolver solver = new IdaStarSolver(3);
+        for (int i = 0; i < 100; i++) {
+            int[][] board = Scrambles.scramble(3, 40, random);
+            assertEquals(solver.solve(board).length(), EXACT.estimate(cells(board)), Arrays.deepToString(board));
+        }
+    }
+
+    @Test
+    void splitTablesNeverOverestimate() {
+        // every placement of the eight tiles is a board; the exact table marks unreachable ones 255
+        int[] pos = new int[8];
+        int reachable = 0;
+        for (int rank = 0; rank < EXACT.tables[0].capacity(); rank++) {
+            int exact = EXACT.tables[0].get(rank) & 0xFF;
+            if (exact == 255) {
+                continue;
+            }
+            reachable++;
+            PatternDatabase.unrank(rank, 8, 9, pos);
+            int[] cells = new int[9];
+            for (int i = 0; i < 8; i++) {
+                cells[pos[i]] = ALL_TILES[0][i];
+            }
+            int split = SPLIT.estimate(cells);
+            assertTrue(split <= exact, Arrays.toString(cells) + ": " + split + " > " + exact);
+        }
+        assertEquals(181440, reachable);
+    }
+
+    @Test
+    void solverWithTablesFindsTheSameLengths() {
+        Random random = new Random(3);
+        IdaStarSolver plain = new IdaStarSolver(3);
+        IdaStarSolver withTables = new IdaStarSolver(SPLIT);
+        for (int i = 0; i < 50; i++) {
+            int[][] board = Scrambles.scramble(3, 40, random);
+            String moves = withTables.solve(board);
+            assertTrue(Scrambles.solves(board, moves), Arrays.deepToString(board));
+            assertEquals(plain.solve(board).length(), moves.length(), Arrays.deepToString(board));
+        }
+    }
+
+    @Test
+    void mappedFileGivesTheSameEstimates(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("3x3.pdb");
+        SPLIT.write(file);
+        PatternDatabase mapped = PatternDatabase.map(file);
+        assertArrayEquals(SPLIT.groups, mapped.groups);
+        Random random = new Random(4);
+        for (int i = 0; i < 200; i++) {
+            int[] cells = cells(Scrambles.scramble(3, 40, random));
+            assertEquals(SPLIT.estimate(cells), mapped.estimate(cells));
+        }
+    }
+
+    private static int[] cells(int[][] board) {
+        int[] cells = new int[9];
+        for (int cell = 0; cell < 9; cell++) {
+            cells[cell] = board[cell / 3][cell % 3];
+        }
+        return cells;
+    }
+}
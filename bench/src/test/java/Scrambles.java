@@ -0,0 +1,63 @@
+import java.util.*;
+
+// Random puzzle boards for the solver tests, and a check that a move string really solves one.
+final class Scrambles {
+    private Scrambles() {
+    }
+
+    // The ordered goal after steps random blank moves; never undoes the move just made.
+    static int[][] scramble(int n, int steps, Random random) {
+        int[][] board = Asearch.orderedGoal(n);
+        int row = n - 1;
+        int col = n - 1;
+        int last = -1;
+        for (int i = 0; i < steps; i++) {
+            int m = random.nextInt(4);
+            int r = row + Asearch.moves[m][0];
+            int c = col + Asearch.moves[m][1];
+            if (r < 0 || r >= n || c < 0 || c >= n || (last >= 0 && (m ^ 1) == last)) {
+                i--;
+                continue;
+            }
+            board[row][col] = board[r][c];
+            board[r][c] = 0;
+            row = r;
+            col = c;
+            last = m;
+        }
+        return board;
+    }
+
+    // Whether the blank moves (D, U, R, L) take board to the ordered goal.
+    static boolean solves(int[][] board, String moves) {
+        int n = board.length;
+        int[][] copy = new int[n][];
+        int row = -1;
+        int col = -1;
+        for (int r = 0; r < n; r++) {
+            copy[r] = board[r].clone();
+            for (int c = 0; c < n; c++) {
+                if (copy[r][c] == 0) {
+                    row = r;
+                    col = c;
+                }
+            }
+        }
+        for (char move : moves.toCharArray()) {
+            int m = IdaStarSolver.MOVE_NAMES.indexOf(move);
+            if (m < 0) {
+                return false;
+            }
+            int r = row + Asearch.moves[m][0];
+            int c = col + Asearch.moves[m][1];
+            if (r < 0 || r >= n || c < 0 || c >= n) {
+                return false;
+            }
+            copy[row][col] = copy[r][c];
+            copy[r][c] = 0;
+            row = r;
+            col = c;
+        }
+        return Arrays.deepEquals(copy, Asearch.orderedGoal(n));
+    }
+}